@@ -9,6 +9,10 @@ const bookingService = {
         const response = await api.get('/api/bookings/my-bookings');
         return response.data;
     },
+    getMyBookingsPage: async (cursor, size = 50) => {
+        const response = await api.get('/api/bookings/my-bookings', { params: { cursor, size } });
+        return response.data;
+    },
     cancelBooking: async (id) => {
         const response = await api.put(`/api/bookings/${id}/cancel`);
         return response.data;
@@ -5,6 +5,10 @@ const equipmentService = {
         const response = await api.get('/api/equipment');
         return response.data;
     },
+    getEquipmentPage: async (cursor, size = 50) => {
+        const response = await api.get('/api/equipment', { params: { cursor, size } });
+        return response.data;
+    },
     getEquipmentById: async (id) => {
         const response = await api.get(`/api/equipment/${id}`);
         return response.data;
@@ -5,6 +5,10 @@ const roomService = {
         const response = await api.get('/api/rooms');
         return response.data;
     },
+    getRoomsPage: async (cursor, size = 50, summary = false) => {
+        const response = await api.get('/api/rooms', { params: { cursor, size, summary } });
+        return response.data;
+    },
     getRoomById: async (id) => {
         const response = await api.get(`/api/rooms/${id}`);
         return response.data;
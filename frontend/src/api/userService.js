@@ -5,6 +5,11 @@ const userService = {
         const response = await api.get('/api/users');
         return response.data;
     },
+    // One page of users; pass back the NextCursor of the previous page to get the next one
+    getUsersPage: async (cursor, size = 50) => {
+        const response = await api.get('/api/users', { params: { cursor, size } });
+        return response.data;
+    },
     getUserById: async (id) => {
         const response = await api.get(`/api/users/${id}`);
         return response.data;
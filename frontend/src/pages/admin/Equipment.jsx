@@ -9,16 +9,20 @@ import { Link } from 'react-router-dom';
 const Equipment = () => {
     const [equipmentList, setEquipmentList] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [hasMore, setHasMore] = useState(false);
 
     useEffect(() => {
         fetchEquipment();
     }, []);
 
-    const fetchEquipment = async () => {
+    const fetchEquipment = async (cursor = null) => {
         try {
-            const response = await equipmentService.getAllEquipment();
+            const response = await equipmentService.getEquipmentPage(cursor);
             if (response.Status === 1) {
-                setEquipmentList(response.Data);
+                setEquipmentList(previous => cursor ? [...previous, ...response.Data] : response.Data);
+                setNextCursor(response.NextCursor);
+                setHasMore(response.HasMore);
             } else {
                 toast.error(response.Message);
             }
@@ -84,6 +88,13 @@ const Equipment = () => {
                     </Card>
                 ))}
             </div>
+            {hasMore && (
+                <div className="flex justify-center">
+                    <Button variant="outline" onClick={() => fetchEquipment(nextCursor)}>
+                        Load more
+                    </Button>
+                </div>
+            )}
         </div>
     );
 };
@@ -9,16 +9,20 @@ import { toast } from 'react-toastify';
 const Rooms = () => {
     const [rooms, setRooms] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [hasMore, setHasMore] = useState(false);
 
     useEffect(() => {
         fetchRooms();
     }, []);
 
-    const fetchRooms = async () => {
+    const fetchRooms = async (cursor = null) => {
         try {
-            const response = await roomService.getAllRooms();
+            const response = await roomService.getRoomsPage(cursor, 50, true);
             if (response.Status === 1) {
-                setRooms(response.Data);
+                setRooms(previous => cursor ? [...previous, ...response.Data] : response.Data);
+                setNextCursor(response.NextCursor);
+                setHasMore(response.HasMore);
             } else {
                 toast.error(response.Message);
             }
@@ -72,6 +76,7 @@ const Rooms = () => {
                         <CardBody>
                             <p className="text-sm text-gray-500 mb-2">Room Number: {room.roomNumber}</p>
                             <p className="text-sm text-gray-500 mb-2">Capacity: {room.capacity}</p>
+                            <p className="text-sm text-gray-500 mb-2">Upcoming bookings: {room.upcomingBookings}</p>
                             <p className="text-sm text-gray-500 mb-4">Type: {room.type}</p>
 
                             <div className="flex justify-end space-x-2">
@@ -88,6 +93,13 @@ const Rooms = () => {
                     </Card>
                 ))}
             </div>
+            {hasMore && (
+                <div className="flex justify-center">
+                    <Button variant="outline" onClick={() => fetchRooms(nextCursor)}>
+                        Load more
+                    </Button>
+                </div>
+            )}
         </div>
     );
 };
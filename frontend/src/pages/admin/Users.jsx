@@ -8,16 +8,21 @@ import { toast } from 'react-toastify';
 const Users = () => {
     const [users, setUsers] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [hasMore, setHasMore] = useState(false);
 
     useEffect(() => {
         fetchUsers();
     }, []);
 
-    const fetchUsers = async () => {
+    // Without a cursor the list restarts from the first page; with one the next page is appended
+    const fetchUsers = async (cursor = null) => {
         try {
-            const response = await userService.getAllUsers();
+            const response = await userService.getUsersPage(cursor);
             if (response.Status === 1) {
-                setUsers(response.Data);
+                setUsers(previous => cursor ? [...previous, ...response.Data] : response.Data);
+                setNextCursor(response.NextCursor);
+                setHasMore(response.HasMore);
             } else {
                 toast.error(response.Message);
             }
@@ -103,6 +108,13 @@ const Users = () => {
                     </div>
                 </div>
             </div>
+            {hasMore && (
+                <div className="flex justify-center">
+                    <Button variant="outline" onClick={() => fetchUsers(nextCursor)}>
+                        Load more
+                    </Button>
+                </div>
+            )}
         </div>
     );
 };
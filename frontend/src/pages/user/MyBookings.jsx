@@ -23,6 +23,8 @@ const localizer = dateFnsLocalizer({
 const MyBookings = () => {
     const [bookings, setBookings] = useState([]);
     const [loading, setLoading] = useState(true);
+    const [nextCursor, setNextCursor] = useState(null);
+    const [hasMore, setHasMore] = useState(false);
     const [viewMode, setViewMode] = useState('list'); // 'list' or 'calendar'
     const [calendarView, setCalendarView] = useState('month'); // 'month', 'week', 'day', 'agenda'
     const [calendarDate, setCalendarDate] = useState(new Date());
@@ -31,11 +33,13 @@ const MyBookings = () => {
         fetchBookings();
     }, []);
 
-    const fetchBookings = async () => {
+    const fetchBookings = async (cursor = null) => {
         try {
-            const response = await bookingService.getMyBookings();
+            const response = await bookingService.getMyBookingsPage(cursor);
             if (response.Status === 1) {
-                setBookings(response.Data);
+                setBookings(previous => cursor ? [...previous, ...response.Data] : response.Data);
+                setNextCursor(response.NextCursor);
+                setHasMore(response.HasMore);
             } else {
                 toast.error(response.Message);
             }
@@ -121,6 +125,13 @@ const MyBookings = () => {
                                 </CardBody>
                             </Card>
                         ))}
+                        {hasMore && (
+                            <div className="flex justify-center">
+                                <Button variant="outline" onClick={() => fetchBookings(nextCursor)}>
+                                    Load more
+                                </Button>
+                            </div>
+                        )}
                     </div>
                 )
             ) : (
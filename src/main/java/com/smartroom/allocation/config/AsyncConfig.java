@@ -0,0 +1,78 @@
+package com.smartroom.allocation.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Enables @Async and provides the executor that sends notification emails off the request thread.
+ * The executor has a bounded queue. When the queue is full, the rejection policy decides what happens:
+ * CALLER_RUNS sends the email on the calling thread, slowing callers down instead of dropping mail;
+ * DISCARD drops the email and logs it, so callers never wait for the mail server.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
+
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+
+    public enum RejectionPolicy { CALLER_RUNS, DISCARD }
+
+    @Value("${notification.executor.core-size:2}")
+    private int coreSize;
+
+    @Value("${notification.executor.max-size:4}")
+    private int maxSize;
+
+    @Value("${notification.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${notification.executor.rejection-policy:CALLER_RUNS}")
+    private RejectionPolicy rejectionPolicy;
+
+    @Bean(name = NOTIFICATION_EXECUTOR)
+    public ThreadPoolTaskExecutor notificationExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("notifications.rejected")
+                .description("Notifications that found the executor queue full")
+                .register(meterRegistry);
+        RejectedExecutionHandler policy = rejectionPolicy == RejectionPolicy.CALLER_RUNS
+                ? new ThreadPoolExecutor.CallerRunsPolicy()
+                : new ThreadPoolExecutor.DiscardPolicy();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("notification-");
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            logger.warn("Notification queue full ({} queued), policy {}", pool.getQueue().size(), rejectionPolicy);
+            policy.rejectedExecution(task, pool);
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        Gauge.builder("notifications.queue.size", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Notifications waiting for a sender thread")
+                .register(meterRegistry);
+        Gauge.builder("notifications.queue.remaining", executor, e -> e.getThreadPoolExecutor().getQueue().remainingCapacity())
+                .description("Free slots in the notification queue")
+                .register(meterRegistry);
+        Gauge.builder("notifications.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Notifications being sent right now")
+                .register(meterRegistry);
+        return executor;
+    }
+}
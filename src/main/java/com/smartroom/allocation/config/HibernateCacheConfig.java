@@ -0,0 +1,81 @@
+package com.smartroom.allocation.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Caffeine-backed caches for the Hibernate second-level cache.
+ * Every region is created here with a size bound; Hibernate is set to fail on any region it does not find,
+ * so no unbounded cache can appear. The timestamps region has no TTL, because query results are only
+ * correct while it remembers when each table last changed.
+ * Each application context gets its own CacheManager, so contexts sharing a JVM (as test contexts do)
+ * neither clash on region names nor close each other's caches.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String ROOMS_REGION = "rooms";
+    public static final String EQUIPMENT_REGION = "equipment";
+    public static final String ROOM_EQUIPMENT_REGION = "room-equipment";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String TIMESTAMPS_REGION = "default-update-timestamps-region";
+    public static final List<String> REGIONS =
+            List.of(ROOMS_REGION, EQUIPMENT_REGION, ROOM_EQUIPMENT_REGION, QUERY_RESULTS_REGION, TIMESTAMPS_REGION);
+
+    @Value("${cache.entities.ttl:PT10M}")
+    private Duration entityTtl;
+
+    @Value("${cache.entities.max-size:10000}")
+    private long entityMaxSize;
+
+    @Value("${cache.queries.ttl:PT5M}")
+    private Duration queryTtl;
+
+    @Value("${cache.queries.max-size:1000}")
+    private long queryMaxSize;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        // A URI of its own keeps this manager apart from the provider's JVM-wide default one
+        URI uri = URI.create("hibernate:" + UUID.randomUUID());
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(uri, HibernateCacheConfig.class.getClassLoader());
+        cacheManager.createCache(ROOMS_REGION, region(entityMaxSize, entityTtl));
+        cacheManager.createCache(EQUIPMENT_REGION, region(entityMaxSize, entityTtl));
+        cacheManager.createCache(ROOM_EQUIPMENT_REGION, region(entityMaxSize, entityTtl));
+        cacheManager.createCache(QUERY_RESULTS_REGION, region(queryMaxSize, queryTtl));
+        cacheManager.createCache(TIMESTAMPS_REGION, region(queryMaxSize, null));
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxSize));
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+}
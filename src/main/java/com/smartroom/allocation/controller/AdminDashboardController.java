@@ -1,16 +1,20 @@
 package com.smartroom.allocation.controller;
 
 import com.smartroom.allocation.dto.AdminDashboardStatsDTO;
+import com.smartroom.allocation.dto.OccupancyHeatmapDTO;
 import com.smartroom.allocation.service.AdminDashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,4 +48,59 @@ public class AdminDashboardController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    /**
+     * Fetches the room busy-ness heatmap: busy room counts per 15-minute slot for each day.
+     * Accessible only by users with 'ADMIN' role.
+     * @param from First day (format: yyyy-MM-dd)
+     * @param to Last day, inclusive (format: yyyy-MM-dd)
+     * @return ResponseEntity with standardized JSON response containing the heatmap.
+     */
+    @GetMapping("/occupancy-heatmap")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getOccupancyHeatmap(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        Map<String, Object> response = new HashMap<>();
+        if (to.isBefore(from)) {
+            response.put("Status", 0);
+            response.put("Message", "The last day must not be before the first day");
+            response.put("Data", null);
+            return ResponseEntity.badRequest().body(response);
+        }
+        try {
+            OccupancyHeatmapDTO heatmap = adminDashboardService.getOccupancyHeatmap(from, to);
+            response.put("Status", 1);
+            response.put("Message", "Occupancy heatmap retrieved successfully");
+            response.put("Data", heatmap);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("Status", 0);
+            response.put("Message", "Failed to retrieve occupancy heatmap: " + e.getMessage());
+            response.put("Data", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Fetches hit/miss statistics of the second-level cache regions.
+     * Accessible only by users with 'ADMIN' role.
+     * @return ResponseEntity with standardized JSON response containing statistics per cache region.
+     */
+    @GetMapping("/cache-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getCacheStatistics() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("Status", 1);
+            response.put("Message", "Cache statistics retrieved successfully");
+            response.put("Data", adminDashboardService.getCacheStatistics());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("Status", 0);
+            response.put("Message", "Failed to retrieve cache statistics: " + e.getMessage());
+            response.put("Data", null);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
 }
@@ -2,16 +2,23 @@ package com.smartroom.allocation.controller;
 
 import com.smartroom.allocation.dto.BookingResponseDTO;
 import com.smartroom.allocation.dto.BookingUpdateDTO;
+import com.smartroom.allocation.dto.PageCursor;
+import com.smartroom.allocation.dto.RecurringBookingReport;
 import com.smartroom.allocation.dto.RecurringBookingRequest;
+import com.smartroom.allocation.dto.TimetableImportJob;
 import com.smartroom.allocation.entity.Booking;
 import com.smartroom.allocation.entity.User;
 import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.exception.BookingConflictException;
 import com.smartroom.allocation.exception.ResourceNotFoundException;
 import com.smartroom.allocation.service.BookingService;
 import com.smartroom.allocation.service.RoomService;
+import com.smartroom.allocation.service.TimetableImportService;
 import com.smartroom.allocation.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,7 +29,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/bookings")
@@ -38,6 +44,9 @@ public class BookingController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private TimetableImportService timetableImportService;
+
     /**
      * Create a new booking
      * @param booking Booking details (should contain roomId)
@@ -78,6 +87,11 @@ public class BookingController {
             response.put("Message", "Booking created successfully");
             response.put("Data", new BookingResponseDTO(createdBooking)); // Now DTO will have room details
             return ResponseEntity.ok(response);
+        } catch (BookingConflictException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (IllegalArgumentException e) {
             response.put("Status", 0);
             response.put("Message", e.getMessage());
@@ -133,7 +147,7 @@ public class BookingController {
      * ADDED: Create a new recurring booking for a semester.
      * @param request the details of the recurrent booking.
      * @param auth The authentication object for the current user.
-     * @return  A list of Created bookings or an error message*/
+     * @return  A list of Created bookings (or, with skipConflicts, a report of created and skipped occurrences) or an error message*/
     @PostMapping("/recurring")
     @PreAuthorize("isAuthenticated()") //only a user can make a recurring booking
     public ResponseEntity<Map<String, Object>> createRecurringBooking(@RequestBody RecurringBookingRequest request,
@@ -147,17 +161,32 @@ public class BookingController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            List<Booking> createdBookings = bookingService.createRecurringBookings(request, currentUser.get());
+            RecurringBookingReport report = bookingService.createRecurringBookings(request, currentUser.get());
 
-            List<BookingResponseDTO> bookingDTOs = createdBookings.stream()
-                    .map(BookingResponseDTO::new)
-                    .collect(Collectors.toList());
+            if (!request.isSkipConflicts()) {
+                response.put("Status", 1);
+                response.put("Message", "Recurring bookings created successfully. Total bookings made: " + report.getCreatedBookings().size());
+                response.put("Data", report.getCreatedBookings());
+                return ResponseEntity.ok(response);
+            }
 
+            // Partial-success mode returns the full report, including the skipped dates
+            if (report.getCreatedBookings().isEmpty()) {
+                response.put("Status", 0);
+                response.put("Message", "Every occurrence conflicts with an existing booking. No bookings were made.");
+                response.put("Data", report);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
             response.put("Status", 1);
-            response.put("Message", "Recurring bookings created successfully. Total bookings made: " + bookingDTOs.size());
-            response.put("Data", bookingDTOs);
+            response.put("Message", "Recurring bookings created. Total bookings made: " + report.getCreatedBookings().size() +
+                    ", occurrences skipped due to conflicts: " + report.getSkippedOccurrences().size());
+            response.put("Data", report);
             return ResponseEntity.ok(response);
 
+        } catch (BookingConflictException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (IllegalArgumentException e) {
             response.put("Status", 0);
             response.put("Message", e.getMessage());
@@ -169,6 +198,72 @@ public class BookingController {
         }
     }
 
+    /**
+     * Bulk import a semester timetable (Admin only).
+     * The body is streamed as text/csv (header row first) or application/x-ndjson, one recurring series per line,
+     * using the RecurringBookingRequest fields plus optional roomNumber and username.
+     * The import runs in the background; poll the returned job ID for progress on the same instance.
+     * Uploads larger than booking.import.max-upload-bytes are rejected, as are new uploads while
+     * booking.import.max-pending imports are still pending.
+     * @param request The raw HTTP request, whose body is the timetable
+     * @param auth The authentication object for the current admin
+     * @return The queued import job
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> importTimetable(HttpServletRequest request, Authentication auth) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            TimetableImportJob.Format format = request.getContentType().startsWith("text/csv")
+                    ? TimetableImportJob.Format.CSV
+                    : TimetableImportJob.Format.NDJSON;
+            TimetableImportJob job = timetableImportService.submit(request.getInputStream(), format, auth.getName());
+
+            response.put("Status", 1);
+            response.put("Message", "Timetable import queued");
+            response.put("Data", job);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (IllegalArgumentException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (Exception e) {
+            response.put("Status", 0);
+            response.put("Message", "Failed to queue timetable import: " + e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Get the progress of a timetable import (Admin only).
+     * Jobs are held in memory by the instance that accepted the upload, so other instances answer 404.
+     * @param jobId ID returned when the import was queued
+     * @return The import job, including counters and the first rejected rows
+     */
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getImportJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        Optional<TimetableImportJob> job = timetableImportService.getJob(jobId);
+        if (!job.isPresent()) {
+            response.put("Status", 0);
+            response.put("Message", "Import job not found");
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        response.put("Status", 1);
+        response.put("Message", "Import job retrieved successfully");
+        response.put("Data", job.get());
+        return ResponseEntity.ok(response);
+    }
+
     @PostMapping("/by-room-number/{roomNumber}")
     public ResponseEntity<Map<String, Object>> createBookingByRoomNumber(@PathVariable String roomNumber,
                                                                          @RequestBody Booking booking,
@@ -200,6 +295,11 @@ public class BookingController {
             response.put("Message", "Booking created successfully");
             response.put("Data", new BookingResponseDTO(createdBooking));
             return ResponseEntity.ok(response);
+        } catch (BookingConflictException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (Exception e) {
             response.put("Status", 0);
             response.put("Message", "Error: " + e.getMessage());
@@ -233,6 +333,11 @@ public class BookingController {
             response.put("Message", e.getMessage());
             response.put("Data", null);
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        } catch (BookingConflictException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (IllegalArgumentException e) {
             response.put("Status", 0);
             response.put("Message", e.getMessage());
@@ -285,12 +390,16 @@ public class BookingController {
     }
 
     /**
-     * Get current user's bookings
+     * Get current user's bookings, or one page of them (latest start first) when cursor or size is given
      * @param auth Authentication object
-     * @return List of user's bookings in standardized format
+     * @param cursor NextCursor of the previous page
+     * @param size Page size
+     * @return List of user's bookings in standardized format, with NextCursor and HasMore when paged
      */
     @GetMapping("/my-bookings")
-    public ResponseEntity<Map<String, Object>> getMyBookings(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getMyBookings(Authentication auth,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size) {
         Map<String, Object> response = new HashMap<>();
 
         try {
@@ -303,16 +412,30 @@ public class BookingController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            List<Booking> bookings = bookingService.getUserBookings(currentUser.get());
-            List<BookingResponseDTO> bookingDTOs = bookings.stream()
-                    .map(BookingResponseDTO::new)
-                    .collect(Collectors.toList());
+            if (cursor != null || size != null) {
+                Slice<BookingResponseDTO> page = bookingService.getUserBookingsPage(currentUser.get(), cursor, PageCursor.pageSize(size));
+                List<BookingResponseDTO> bookings = page.getContent();
+                BookingResponseDTO last = bookings.isEmpty() ? null : bookings.get(bookings.size() - 1);
+                response.put("Status", 1);
+                response.put("Message", "Bookings retrieved successfully");
+                response.put("Data", bookings);
+                response.put("NextCursor", page.hasNext() ? PageCursor.encode(last.getStartTime(), last.getId()) : null);
+                response.put("HasMore", page.hasNext());
+                return ResponseEntity.ok(response);
+            }
+
+            List<BookingResponseDTO> bookingDTOs = bookingService.getUserBookingDTOs(currentUser.get());
 
             response.put("Status", 1);
             response.put("Message", "Bookings retrieved successfully");
             response.put("Data", bookingDTOs);
             //response.put("Token", "");
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             response.put("Status", 0);
             response.put("Message", "Failed to retrieve bookings: " + e.getMessage());
@@ -358,10 +481,7 @@ public class BookingController {
             }
 
             // Get upcoming bookings
-            List<Booking> bookings = bookingService.getUpcomingBookingsForRoom(roomOpt.get());
-            List<BookingResponseDTO> bookingDTOs = bookings.stream()
-                    .map(BookingResponseDTO::new)
-                    .collect(Collectors.toList());
+            List<BookingResponseDTO> bookingDTOs = bookingService.getUpcomingBookingDTOsForRoom(roomOpt.get().getId());
 
             response.put("Status", 1);
             response.put("Message", "Upcoming bookings retrieved successfully");
@@ -397,10 +517,7 @@ public class BookingController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            List<Booking> bookings = bookingService.getUpcomingBookingsForRoom(roomOpt.get());
-            List<BookingResponseDTO> bookingDTOs = bookings.stream()
-                    .map(BookingResponseDTO::new)
-                    .collect(Collectors.toList());
+            List<BookingResponseDTO> bookingDTOs = bookingService.getUpcomingBookingDTOsForRoom(roomOpt.get().getId());
 
             response.put("Status", 1);
             response.put("Message", "Upcoming bookings retrieved successfully");
@@ -1,17 +1,21 @@
 package com.smartroom.allocation.controller;
 
 import com.smartroom.allocation.dto.EquipmentResponseDTO;
+import com.smartroom.allocation.dto.PageCursor;
 import com.smartroom.allocation.entity.Equipment;
 import com.smartroom.allocation.entity.EquipmentType;
 import com.smartroom.allocation.entity.Room;
 import com.smartroom.allocation.repository.BookingRepository;
 import com.smartroom.allocation.repository.EquipmentRepository;
 import com.smartroom.allocation.service.NotificationService;
+import com.smartroom.allocation.service.RoomCacheEvictor;
 import com.smartroom.allocation.service.RoomService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -46,6 +50,9 @@ public class EquipmentController {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private RoomCacheEvictor roomCacheEvictor;
+
     /*Helper method to notify users with active bookings that
      * the equipment in their rooms has changed */
 
@@ -66,9 +73,12 @@ public class EquipmentController {
 
     /*
      * Get all the Equipment
+     * Paged by ID when cursor or size is given; the response then carries NextCursor and HasMore
      * */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllEquipment(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getAllEquipment(Authentication auth,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (auth == null || auth.getName() == null) {
@@ -79,15 +89,29 @@ public class EquipmentController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
 
-            List<Equipment> equipment = equipmentRepository.findAll();
-            List<EquipmentResponseDTO> equipmentDTOs = equipment.stream()
-                    .map(EquipmentResponseDTO::new)
-                    .collect(Collectors.toList());
+            if (cursor != null || size != null) {
+                Slice<EquipmentResponseDTO> page = equipmentRepository.findEquipmentPage(
+                        PageCursor.afterId(cursor), PageRequest.of(0, PageCursor.pageSize(size)));
+                List<EquipmentResponseDTO> equipment = page.getContent();
+                response.put("Status", 1);
+                response.put("Message", "Equipment retrieved successfully");
+                response.put("Data", equipment);
+                response.put("NextCursor", page.hasNext() ? PageCursor.encode(equipment.get(equipment.size() - 1).getId()) : null);
+                response.put("HasMore", page.hasNext());
+                return ResponseEntity.ok(response);
+            }
+
+            List<EquipmentResponseDTO> equipmentDTOs = equipmentRepository.findAllEquipmentDTOs();
             response.put("Status", 1);
             response.put("Message", "Equipment retrieved successfully");
             response.put("Data", equipmentDTOs);
             // response.put("Token", "");
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Failed to retrieve equipment: {}", e.getMessage());
             response.put("Status", 0);
@@ -152,10 +176,7 @@ public class EquipmentController {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
 
-            List<Equipment> equipment = equipmentRepository.findByWorkingTrue();
-            List<EquipmentResponseDTO> equipmentDTOs = equipment.stream()
-                    .map(EquipmentResponseDTO::new)
-                    .collect(Collectors.toList());
+            List<EquipmentResponseDTO> equipmentDTOs = equipmentRepository.findWorkingEquipmentDTOs();
             response.put("Status", 1);
             response.put("Message", "Working equipment retrieved successfully");
             response.put("Data", equipmentDTOs);
@@ -296,6 +317,7 @@ public class EquipmentController {
             }
 
             Equipment createdEquipment = equipmentRepository.save(equipment);
+            roomCacheEvictor.evictEquipmentOf(createdEquipment.getRoom());
             response.put("Status", 1);
             response.put("Message", "Equipment created successfully");
             response.put("Data", new EquipmentResponseDTO(createdEquipment));
@@ -333,6 +355,7 @@ public class EquipmentController {
 
             equipment.setRoom(roomOpt.get());
             Equipment createdEquipment = equipmentRepository.save(equipment);
+            roomCacheEvictor.evictEquipmentOf(createdEquipment.getRoom());
 
             response.put("Status", 1);
             response.put("Message", "Equipment created successfully");
@@ -408,6 +431,7 @@ public class EquipmentController {
             }
 
             Equipment updatedEquipment = equipmentRepository.save(equipment);
+            roomCacheEvictor.evictEquipmentOf(oldRoom, updatedEquipment.getRoom());
 
             // Notify users if the equipment is still assigned to a room or was previously assigned
             if(updatedEquipment.getRoom() !=null){
@@ -481,6 +505,7 @@ public class EquipmentController {
             existingEquipment.setRoom(roomOpt.get());
 
             Equipment updatedEquipment = equipmentRepository.save(existingEquipment);
+            roomCacheEvictor.evictEquipmentOf(oldRoom, updatedEquipment.getRoom());
 
             // Notify users if the equipment's room changed or its details were updated
             if (updatedEquipment.getRoom() != null && !updatedEquipment.getRoom().equals(oldRoom)) {
@@ -537,6 +562,7 @@ public class EquipmentController {
             Room oldRoom=equipment.getRoom();
             equipment.setRoom(null);
             Equipment updatedEquipment = equipmentRepository.save(equipment);
+            roomCacheEvictor.evictEquipmentOf(oldRoom);
 
             //notify users of the room from which the equipment was unassigned
             if (oldRoom!=null){
@@ -596,6 +622,7 @@ public class EquipmentController {
             }
             //now we delete the equipment entity itself
             equipmentRepository.deleteById(id);
+            roomCacheEvictor.evictEquipmentOf(oldRoom);
             response.put("Status", 1);
             response.put("Message", "Equipment deleted successfully");
             response.put("Data", "");
@@ -657,6 +684,7 @@ public class EquipmentController {
 
             //2. Delete the now orphaned equipment entities.
             equipmentRepository.deleteAll(equipmentList);
+            roomCacheEvictor.evictEquipmentOf(room);
             response.put("Status", 1);
             response.put("Message", "All equipment for room " + roomNumber + " deleted successfully");
             response.put("Data", "");
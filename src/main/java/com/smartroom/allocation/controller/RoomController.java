@@ -1,20 +1,29 @@
 package com.smartroom.allocation.controller;
 
+import com.smartroom.allocation.dto.AllocationRequest;
+import com.smartroom.allocation.dto.AllocationResult;
+import com.smartroom.allocation.dto.FreeSlot;
+import com.smartroom.allocation.dto.PageCursor;
 import com.smartroom.allocation.dto.RoomResponseDTO;
+import com.smartroom.allocation.entity.EquipmentType;
 import com.smartroom.allocation.entity.Room;
 import com.smartroom.allocation.entity.RoomStatus;
+import com.smartroom.allocation.service.RoomAllocationService;
 import com.smartroom.allocation.service.RoomService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -25,12 +34,24 @@ public class RoomController {
     @Autowired
     private RoomService roomService;
 
+    @Autowired
+    private RoomAllocationService roomAllocationService;
+
+    // Upper bound on the number of windows a single free-slot search may return
+    private static final int MAX_FREE_SLOTS = 100;
+
     /**
-     * Get all active rooms
-     * @return List of active rooms
+     * Get all active rooms, or one page of them ordered by ID when cursor or size is given
+     * @param cursor NextCursor of the previous page
+     * @param size Page size
+     * @param summary If true, return each room's number of upcoming bookings instead of all its bookings
+     * @return List of active rooms, with NextCursor and HasMore when paged
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllRooms(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getAllRooms(Authentication auth,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size,
+                                                           @RequestParam(defaultValue = "false") boolean summary) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (auth == null || auth.getName() == null) {
@@ -40,15 +61,27 @@ public class RoomController {
                 //response.put("Token", "");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
-            List<Room> rooms = roomService.getAllActiveRooms();
-            List<RoomResponseDTO> roomDTOs = rooms.stream()
-                    .map(RoomResponseDTO::new)
-                    .collect(Collectors.toList());
+            if (cursor != null || size != null) {
+                Slice<RoomResponseDTO> page = roomService.getActiveRoomsPage(cursor, PageCursor.pageSize(size), summary);
+                List<RoomResponseDTO> rooms = page.getContent();
+                response.put("Status", 1);
+                response.put("Message", "Rooms retrieved successfully");
+                response.put("Data", rooms);
+                response.put("NextCursor", page.hasNext() ? PageCursor.encode(rooms.get(rooms.size() - 1).getId()) : null);
+                response.put("HasMore", page.hasNext());
+                return ResponseEntity.ok(response);
+            }
+            List<RoomResponseDTO> roomDTOs = roomService.getActiveRoomDTOs(summary);
             response.put("Status", 1);
             response.put("Message", "Rooms retrieved successfully");
             response.put("Data", roomDTOs);
             //response.put("Token", "");
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             response.put("Status", 0);
             response.put("Message", "Failed to retrieve rooms: " + e.getMessage());
@@ -178,6 +211,82 @@ public class RoomController {
     }
 
 
+    /**
+     * Find the next free windows long enough for a booking, across all suitable rooms.
+     * @param durationMinutes Length of the booking in minutes
+     * @param from Start of the search range (format: yyyy-MM-dd'T'HH:mm:ss)
+     * @param to End of the search range (format: yyyy-MM-dd'T'HH:mm:ss)
+     * @param minCapacity Minimum room capacity (optional)
+     * @param equipment Equipment types the room must have (optional, comma separated)
+     * @param limit Number of windows to return (default 10)
+     * @return Free windows, earliest first
+     */
+    @GetMapping("/free-slots")
+    public ResponseEntity<Map<String, Object>> findFreeSlots(
+            @RequestParam int durationMinutes,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Set<EquipmentType> equipment,
+            @RequestParam(defaultValue = "10") int limit) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            if (durationMinutes <= 0 || limit <= 0 || limit > MAX_FREE_SLOTS) {
+                response.put("Status", 0);
+                response.put("Message", "Duration must be positive and limit between 1 and " + MAX_FREE_SLOTS);
+                response.put("Data", "");
+                return ResponseEntity.badRequest().body(response);
+            }
+            if (!to.isAfter(from)) {
+                response.put("Status", 0);
+                response.put("Message", "End of the search range must be after its start");
+                response.put("Data", "");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            List<FreeSlot> slots = roomService.findFreeSlots(Duration.ofMinutes(durationMinutes), from, to,
+                    minCapacity, equipment, limit);
+            response.put("Status", 1);
+            response.put("Message", "Free slots retrieved successfully");
+            response.put("Data", slots);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("Status", 0);
+            response.put("Message", "Failed to find free slots: " + e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * Propose rooms for a batch of booking requests that only state what they need
+     * (time slot, capacity, equipment, preferred building). Nothing is booked.
+     * @param requests The requests to place
+     * @return Proposed room per request and the requests that could not be placed
+     */
+    @PostMapping("/allocate")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> allocateRooms(@RequestBody List<AllocationRequest> requests) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            AllocationResult result = roomAllocationService.allocate(requests);
+            response.put("Status", 1);
+            response.put("Message", "Rooms allocated for " + result.getAssignments().size() + " of " + requests.size() + " requests");
+            response.put("Data", result);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            response.put("Status", 0);
+            response.put("Message", "Failed to allocate rooms: " + e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
     /**
      * Search rooms by minimum capacity
      * @param minCapacity Minimum capacity required
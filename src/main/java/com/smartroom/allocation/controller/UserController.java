@@ -1,11 +1,13 @@
 package com.smartroom.allocation.controller;
 
+import com.smartroom.allocation.dto.PageCursor;
 import com.smartroom.allocation.dto.PasswordUpdateRequest;
 import com.smartroom.allocation.dto.UserResponseDTO;
 import com.smartroom.allocation.entity.User;
 import com.smartroom.allocation.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -28,10 +30,13 @@ public class UserController {
 
     /*
      * Getting all the users available in Db
-     * Only available for Admins*/
+     * Only available for Admins
+     * Paged by ID when cursor or size is given; the response then carries NextCursor and HasMore*/
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> getAllUsers(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getAllUsers(Authentication auth,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(required = false) Integer size) {
         Map<String, Object> response = new HashMap<>();
         try {
             if (auth == null || auth.getName() == null) {
@@ -41,6 +46,16 @@ public class UserController {
                 //response.put("Token", "");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
+            if (cursor != null || size != null) {
+                Slice<UserResponseDTO> page = userService.getUsersPage(cursor, PageCursor.pageSize(size));
+                List<UserResponseDTO> users = page.getContent();
+                response.put("Status", 1);
+                response.put("Message", "Users retrieved successfully");
+                response.put("Data", users);
+                response.put("NextCursor", page.hasNext() ? PageCursor.encode(users.get(users.size() - 1).getId()) : null);
+                response.put("HasMore", page.hasNext());
+                return ResponseEntity.ok(response);
+            }
             //changed to call updated service method that returns DTOs
             List<UserResponseDTO> users = userService.getAllUsers();
             response.put("Status", 1);
@@ -48,6 +63,11 @@ public class UserController {
             response.put("Data", users);
             //response.put("Token", "");
             return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            response.put("Status", 0);
+            response.put("Message", e.getMessage());
+            response.put("Data", "");
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             response.put("Status", 0);
             response.put("Message", "Failed to retrieve users: " + e.getMessage());
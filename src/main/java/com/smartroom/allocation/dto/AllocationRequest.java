@@ -0,0 +1,38 @@
+package com.smartroom.allocation.dto;
+
+import com.smartroom.allocation.entity.EquipmentType;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * One booking request for the automatic room allocator. No room is named;
+ * the allocator picks one that fits the capacity, equipment and (if possible) the preferred building.
+ */
+public class AllocationRequest {
+    // Caller's own reference, echoed back in the result
+    private String requestId;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer capacity;
+    private Set<EquipmentType> requiredEquipment;
+    private String preferredBuilding;
+
+    public String getRequestId() { return requestId; }
+    public void setRequestId(String requestId) { this.requestId = requestId; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+    public Integer getCapacity() { return capacity; }
+    public void setCapacity(Integer capacity) { this.capacity = capacity; }
+
+    public Set<EquipmentType> getRequiredEquipment() { return requiredEquipment; }
+    public void setRequiredEquipment(Set<EquipmentType> requiredEquipment) { this.requiredEquipment = requiredEquipment; }
+
+    public String getPreferredBuilding() { return preferredBuilding; }
+    public void setPreferredBuilding(String preferredBuilding) { this.preferredBuilding = preferredBuilding; }
+}
@@ -0,0 +1,76 @@
+package com.smartroom.allocation.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rooms proposed by the automatic allocator for a batch of requests. Nothing is booked;
+ * callers confirm an assignment by creating the booking as usual.
+ */
+public class AllocationResult {
+    private final List<Assignment> assignments = new ArrayList<>();
+    private final List<Unassigned> unassigned = new ArrayList<>();
+    private long totalWastedCapacity;
+    private long elapsedMs;
+    // True if the time budget ran out before the improvement pass finished
+    private boolean timedOut;
+
+    /**
+     * A request and the room proposed for it.
+     */
+    public static class Assignment {
+        private final String requestId;
+        private final Long roomId;
+        private final String roomNumber;
+        private final String building;
+        private final int wastedCapacity;
+
+        public Assignment(String requestId, RoomProfile room, int wastedCapacity) {
+            this.requestId = requestId;
+            this.roomId = room.getRoomId();
+            this.roomNumber = room.getRoomNumber();
+            this.building = room.getBuilding();
+            this.wastedCapacity = wastedCapacity;
+        }
+
+        public String getRequestId() { return requestId; }
+
+        public Long getRoomId() { return roomId; }
+
+        public String getRoomNumber() { return roomNumber; }
+
+        public String getBuilding() { return building; }
+
+        public int getWastedCapacity() { return wastedCapacity; }
+    }
+
+    /**
+     * A request no room could be found for.
+     */
+    public static class Unassigned {
+        private final String requestId;
+        private final String reason;
+
+        public Unassigned(String requestId, String reason) {
+            this.requestId = requestId;
+            this.reason = reason;
+        }
+
+        public String getRequestId() { return requestId; }
+
+        public String getReason() { return reason; }
+    }
+
+    public List<Assignment> getAssignments() { return assignments; }
+
+    public List<Unassigned> getUnassigned() { return unassigned; }
+
+    public long getTotalWastedCapacity() { return totalWastedCapacity; }
+    public void setTotalWastedCapacity(long totalWastedCapacity) { this.totalWastedCapacity = totalWastedCapacity; }
+
+    public long getElapsedMs() { return elapsedMs; }
+    public void setElapsedMs(long elapsedMs) { this.elapsedMs = elapsedMs; }
+
+    public boolean isTimedOut() { return timedOut; }
+    public void setTimedOut(boolean timedOut) { this.timedOut = timedOut; }
+}
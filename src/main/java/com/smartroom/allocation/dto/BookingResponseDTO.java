@@ -54,6 +54,24 @@ public class BookingResponseDTO {
         }
     }
 
+    // Constructor for JPQL constructor expressions, so list endpoints can skip loading Booking, Room and User entities
+    public BookingResponseDTO(Long id, Long roomId, String roomNumber, String roomName, String lecturerName, String username,
+                              String purpose, LocalDateTime startTime, LocalDateTime endTime, BookingStatus status,
+                              LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.roomId = roomId;
+        this.roomNumber = roomNumber;
+        this.roomName = roomName;
+        this.lecturerName = lecturerName;
+        this.username = username;
+        this.purpose = purpose;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.status = status;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
     // Default constructor (important for Spring/Jackson deserialization in some cases)
     public BookingResponseDTO() {
     }
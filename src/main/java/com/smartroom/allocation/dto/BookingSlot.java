@@ -0,0 +1,51 @@
+package com.smartroom.allocation.dto;
+
+import com.smartroom.allocation.entity.Booking;
+import com.smartroom.allocation.entity.BookingStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight view of the time a booking holds a room.
+ * Used by the in-memory availability structures so they never have to hydrate full Booking entities.
+ */
+public class BookingSlot {
+    private final Long bookingId;
+    private final Long roomId;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public BookingSlot(Long bookingId, Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        this.bookingId = bookingId;
+        this.roomId = roomId;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    /**
+     * Build the slot held by a booking.
+     * @param booking Booking to describe
+     * @return The slot, or null if the booking is not CONFIRMED (and therefore does not hold the room)
+     */
+    public static BookingSlot confirmedSlotOf(Booking booking) {
+        if (booking == null || booking.getStatus() != BookingStatus.CONFIRMED || booking.getRoom() == null) {
+            return null;
+        }
+        return new BookingSlot(booking.getId(), booking.getRoom().getId(), booking.getStartTime(), booking.getEndTime());
+    }
+
+    /**
+     * Check whether this slot overlaps the half-open window [startTime, endTime).
+     */
+    public boolean overlaps(LocalDateTime startTime, LocalDateTime endTime) {
+        return this.startTime.isBefore(endTime) && this.endTime.isAfter(startTime);
+    }
+
+    public Long getBookingId() { return bookingId; }
+
+    public Long getRoomId() { return roomId; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+}
@@ -17,6 +17,18 @@ public class EquipmentResponseDTO {
     private Long roomId;
     private String roomNumber;
 
+    // Selected directly by EquipmentRepository, with the room LEFT JOINed
+    public EquipmentResponseDTO(Long id, String name, EquipmentType type, String description, Boolean working,
+                                Long roomId, String roomNumber) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.description = description;
+        this.working = Boolean.TRUE.equals(working);
+        this.roomId = roomId;
+        this.roomNumber = roomNumber;
+    }
+
     public EquipmentResponseDTO(Equipment equipment) {
         this.id = equipment.getId();
         this.name = equipment.getName();
@@ -0,0 +1,37 @@
+package com.smartroom.allocation.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A window in which a room has no confirmed bookings. Any booking of the requested
+ * duration that starts at or after startTime and ends by endTime will fit.
+ */
+public class FreeSlot {
+    private final Long roomId;
+    private final String roomNumber;
+    private final String building;
+    private final Integer capacity;
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public FreeSlot(RoomProfile room, LocalDateTime startTime, LocalDateTime endTime) {
+        this.roomId = room.getRoomId();
+        this.roomNumber = room.getRoomNumber();
+        this.building = room.getBuilding();
+        this.capacity = room.getCapacity();
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public Long getRoomId() { return roomId; }
+
+    public String getRoomNumber() { return roomNumber; }
+
+    public String getBuilding() { return building; }
+
+    public Integer getCapacity() { return capacity; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+}
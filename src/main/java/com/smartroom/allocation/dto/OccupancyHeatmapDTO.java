@@ -0,0 +1,40 @@
+package com.smartroom.allocation.dto;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Number of busy rooms per time slot, one row per day. Used for the admin busy-ness heatmap.
+ */
+public class OccupancyHeatmapDTO {
+    private final int slotMinutes;
+    private final int roomCount;
+    private final List<Day> days = new ArrayList<>();
+
+    public static class Day {
+        private final LocalDate date;
+        // busyRooms[i] is the number of rooms booked during slot i (slot 0 starts at midnight)
+        private final int[] busyRooms;
+
+        public Day(LocalDate date, int[] busyRooms) {
+            this.date = date;
+            this.busyRooms = busyRooms;
+        }
+
+        public LocalDate getDate() { return date; }
+
+        public int[] getBusyRooms() { return busyRooms; }
+    }
+
+    public OccupancyHeatmapDTO(int slotMinutes, int roomCount) {
+        this.slotMinutes = slotMinutes;
+        this.roomCount = roomCount;
+    }
+
+    public int getSlotMinutes() { return slotMinutes; }
+
+    public int getRoomCount() { return roomCount; }
+
+    public List<Day> getDays() { return days; }
+}
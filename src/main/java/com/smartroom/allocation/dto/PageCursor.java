@@ -0,0 +1,90 @@
+package com.smartroom.allocation.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor: the sort key of the last row of a page, plus its ID as tie-breaker.
+ * Clients only pass back the NextCursor string they were given; its encoding is not part of the API.
+ */
+public class PageCursor {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 200;
+
+    private final LocalDateTime time;
+    private final long id;
+
+    private PageCursor(LocalDateTime time, long id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() { return time; }
+
+    public long getId() { return id; }
+
+    /**
+     * Cursor for lists sorted by ID only.
+     * @param id ID of the last row of the page
+     */
+    public static String encode(long id) {
+        return encode(null, id);
+    }
+
+    /**
+     * Cursor for lists sorted by a timestamp, then by ID.
+     * @param time Timestamp of the last row of the page
+     * @param id ID of the last row of the page
+     */
+    public static String encode(LocalDateTime time, long id) {
+        String raw = time != null ? time + "|" + id : Long.toString(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor A cursor returned with a previous page, or null for the first page
+     * @return The decoded cursor, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                return new PageCursor(null, Long.parseLong(raw));
+            }
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * ID after which the next page starts, for lists sorted by ID only.
+     * @param cursor A cursor returned with a previous page, or null for the first page
+     */
+    public static long afterId(String cursor) {
+        PageCursor decoded = decode(cursor);
+        return decoded != null ? decoded.id : 0L;
+    }
+
+    /**
+     * @param size Requested page size, or null for the default
+     * @return The page size, capped at MAX_SIZE
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public static int pageSize(Integer size) {
+        if (size == null) {
+            return DEFAULT_SIZE;
+        }
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1");
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.smartroom.allocation.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a recurring booking request: the occurrences that were booked
+ * and, when skipConflicts was requested, the ones left out because the room was taken.
+ */
+public class RecurringBookingReport {
+    private String recurringGroupId;
+    private List<BookingResponseDTO> createdBookings = new ArrayList<>();
+    private List<SkippedOccurrence> skippedOccurrences = new ArrayList<>();
+
+    /**
+     * An occurrence that was not booked, with the confirmed bookings it clashed with.
+     */
+    public static class SkippedOccurrence {
+        private LocalDate date;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private List<Long> conflictingBookingIds;
+
+        public SkippedOccurrence(LocalDateTime startTime, LocalDateTime endTime, List<Long> conflictingBookingIds) {
+            this.date = startTime.toLocalDate();
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.conflictingBookingIds = conflictingBookingIds;
+        }
+
+        public LocalDate getDate() { return date; }
+
+        public LocalDateTime getStartTime() { return startTime; }
+
+        public LocalDateTime getEndTime() { return endTime; }
+
+        public List<Long> getConflictingBookingIds() { return conflictingBookingIds; }
+    }
+
+    public RecurringBookingReport(String recurringGroupId) {
+        this.recurringGroupId = recurringGroupId;
+    }
+
+    public String getRecurringGroupId() { return recurringGroupId; }
+
+    public List<BookingResponseDTO> getCreatedBookings() { return createdBookings; }
+
+    public List<SkippedOccurrence> getSkippedOccurrences() { return skippedOccurrences; }
+}
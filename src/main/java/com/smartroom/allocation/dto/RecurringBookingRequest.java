@@ -21,6 +21,10 @@ public class RecurringBookingRequest {
     // Specifies the interval: 1 for weekly, 2 for bi-weekly, etc. Defaults to 1.
     private int intervalWeeks = 1;
 
+    // When true, occurrences that clash with existing bookings are skipped and reported
+    // instead of rejecting the whole series. Defaults to false (all or nothing).
+    private boolean skipConflicts = false;
+
     // Getters and Setters
     public Long getRoomId() { return roomId; }
     public void setRoomId(Long roomId) { this.roomId = roomId; }
@@ -48,4 +52,7 @@ public class RecurringBookingRequest {
 
     public int getIntervalWeeks() { return intervalWeeks; }
     public void setIntervalWeeks(int intervalWeeks) { this.intervalWeeks = intervalWeeks; }
+
+    public boolean isSkipConflicts() { return skipConflicts; }
+    public void setSkipConflicts(boolean skipConflicts) { this.skipConflicts = skipConflicts; }
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.smartroom.allocation.dto;
+
+/**
+ * Number of upcoming bookings of one room, for the summary mode of the room list.
+ */
+public interface RoomBookingCount {
+
+    Long getRoomId();
+
+    Long getUpcoming();
+}
@@ -0,0 +1,17 @@
+package com.smartroom.allocation.dto;
+
+import com.smartroom.allocation.entity.BookingStatus;
+
+/**
+ * Booking ID, purpose and status with the room it is for, for the booking list of RoomResponseDTO.
+ */
+public interface RoomBookingSummary {
+
+    Long getRoomId();
+
+    Long getId();
+
+    String getPurpose();
+
+    BookingStatus getStatus();
+}
@@ -0,0 +1,13 @@
+package com.smartroom.allocation.dto;
+
+import com.smartroom.allocation.entity.EquipmentType;
+
+/**
+ * A (room, equipment type) pair, used to fill in RoomProfile equipment without loading Equipment entities.
+ */
+public interface RoomEquipment {
+
+    Long getRoomId();
+
+    EquipmentType getType();
+}
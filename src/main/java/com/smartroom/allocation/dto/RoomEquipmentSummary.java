@@ -0,0 +1,13 @@
+package com.smartroom.allocation.dto;
+
+/**
+ * Equipment ID and name with the room holding it, for the equipment list of RoomResponseDTO.
+ */
+public interface RoomEquipmentSummary {
+
+    Long getRoomId();
+
+    Long getId();
+
+    String getName();
+}
@@ -0,0 +1,49 @@
+package com.smartroom.allocation.dto;
+
+import com.smartroom.allocation.entity.EquipmentType;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The parts of a room that matter when searching for somewhere to hold a booking.
+ * Loaded with a constructor expression so that searches never hydrate Room entities and their equipment.
+ */
+public class RoomProfile {
+    private final Long roomId;
+    private final String roomNumber;
+    private final Integer capacity;
+    private final String building;
+    // Types of the room's working equipment, filled in from a separate query
+    private final Set<EquipmentType> equipment = EnumSet.noneOf(EquipmentType.class);
+
+    public RoomProfile(Long roomId, String roomNumber, Integer capacity, String building) {
+        this.roomId = roomId;
+        this.roomNumber = roomNumber;
+        this.capacity = capacity;
+        this.building = building;
+    }
+
+    /**
+     * Check whether the room can seat the given number of people and has all the given equipment.
+     * @param minCapacity Required capacity, or null for any
+     * @param requiredEquipment Required equipment types, or null/empty for none
+     */
+    public boolean satisfies(Integer minCapacity, Set<EquipmentType> requiredEquipment) {
+        int roomCapacity = capacity != null ? capacity : 0;
+        if (minCapacity != null && roomCapacity < minCapacity) {
+            return false;
+        }
+        return requiredEquipment == null || equipment.containsAll(requiredEquipment);
+    }
+
+    public Long getRoomId() { return roomId; }
+
+    public String getRoomNumber() { return roomNumber; }
+
+    public Integer getCapacity() { return capacity; }
+
+    public String getBuilding() { return building; }
+
+    public Set<EquipmentType> getEquipment() { return equipment; }
+}
@@ -21,6 +21,8 @@ public class RoomResponseDTO {
     private boolean isActive;
     private List<EquipmentSummaryDTO> equipment;
     private List<BookingSummaryDTO> bookings;
+    // Only set in summary mode, where bookings is left out
+    private Long upcomingBookings;
 
     // Inner class to summarize equipment
     public static class EquipmentSummaryDTO {
@@ -32,6 +34,11 @@ public class RoomResponseDTO {
             this.name = equipment.getName();
         }
 
+        public EquipmentSummaryDTO(RoomEquipmentSummary equipment) {
+            this.id = equipment.getId();
+            this.name = equipment.getName();
+        }
+
         public Long getId() { return id; }
         public String getName() { return name; }
     }
@@ -48,6 +55,12 @@ public class RoomResponseDTO {
             this.status = booking.getStatus();
         }
 
+        public BookingSummaryDTO(RoomBookingSummary booking) {
+            this.id = booking.getId();
+            this.purpose = booking.getPurpose();
+            this.status = booking.getStatus();
+        }
+
         public Long getId() { return id; }
         public String getPurpose() { return purpose; }
         public BookingStatus getStatus() { return status; }
@@ -73,6 +86,24 @@ public class RoomResponseDTO {
                 .collect(Collectors.toList()) : null;
     }
 
+    /**
+     * Room columns only, as selected by RoomRepository.
+     * The equipment and booking lists are filled in afterwards with setEquipment and setBookings.
+     */
+    public RoomResponseDTO(Long id, String roomNumber, String name, Integer capacity, String building, String floor,
+                           String location, RoomType roomType, RoomStatus status, Boolean active) {
+        this.id = id;
+        this.roomNumber = roomNumber;
+        this.name = name;
+        this.capacity = capacity != null ? capacity : 0;
+        this.building = building;
+        this.floor = floor;
+        this.location = location;
+        this.roomType = roomType;
+        this.status = status;
+        this.isActive = Boolean.TRUE.equals(active);
+    }
+
     // Getters and setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -109,4 +140,7 @@ public class RoomResponseDTO {
 
     public List<BookingSummaryDTO> getBookings() { return bookings; }
     public void setBookings(List<BookingSummaryDTO> bookings) { this.bookings = bookings; }
+
+    public Long getUpcomingBookings() { return upcomingBookings; }
+    public void setUpcomingBookings(Long upcomingBookings) { this.upcomingBookings = upcomingBookings; }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.smartroom.allocation.dto;
+
+/**
+ * One clash found while validating a whole series of candidate bookings in a single query.
+ */
+public interface SeriesConflict {
+
+    // 1-based position of the candidate occurrence in the submitted series
+    Long getOccurrenceIndex();
+
+    // Confirmed booking that overlaps the occurrence
+    Long getBookingId();
+}
@@ -0,0 +1,110 @@
+package com.smartroom.allocation.dto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress of a bulk timetable import. Updated by the import worker only and read by the status endpoint.
+ */
+public class TimetableImportJob {
+
+    public enum Format { CSV, NDJSON }
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    // Only the first errors are kept so a badly broken file cannot grow the job without bound
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final String jobId;
+    private final Format format;
+    private final String submittedBy;
+    private final LocalDateTime submittedAt = LocalDateTime.now();
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime finishedAt;
+    private volatile long rowsRead;
+    private volatile long seriesImported;
+    private volatile long rowsRejected;
+    private volatile long bookingsCreated;
+    private volatile long occurrencesSkipped;
+    private volatile String failureReason;
+    private final List<String> errors = new ArrayList<>();
+
+    public TimetableImportJob(String jobId, Format format, String submittedBy) {
+        this.jobId = jobId;
+        this.format = format;
+        this.submittedBy = submittedBy;
+    }
+
+    public void start() { status = Status.RUNNING; }
+
+    public void complete() {
+        finishedAt = LocalDateTime.now();
+        status = Status.COMPLETED;
+    }
+
+    public void fail(String reason) {
+        failureReason = reason;
+        finishedAt = LocalDateTime.now();
+        status = Status.FAILED;
+    }
+
+    public void rowRead() { rowsRead++; }
+
+    /**
+     * Record a series that was booked.
+     * @param created Number of bookings created for the series
+     * @param skipped Number of occurrences left out because of conflicts
+     */
+    public void seriesImported(int created, int skipped) {
+        seriesImported++;
+        bookingsCreated += created;
+        occurrencesSkipped += skipped;
+    }
+
+    /**
+     * Record a row that could not be imported.
+     * @param lineNumber Line of the file the row was read from
+     * @param reason Why the row was rejected
+     */
+    public void rowRejected(long lineNumber, String reason) {
+        rowsRejected++;
+        synchronized (errors) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + lineNumber + ": " + reason);
+            }
+        }
+    }
+
+    public boolean isFinished() { return status == Status.COMPLETED || status == Status.FAILED; }
+
+    public String getJobId() { return jobId; }
+
+    public Format getFormat() { return format; }
+
+    public String getSubmittedBy() { return submittedBy; }
+
+    public LocalDateTime getSubmittedAt() { return submittedAt; }
+
+    public Status getStatus() { return status; }
+
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+
+    public long getRowsRead() { return rowsRead; }
+
+    public long getSeriesImported() { return seriesImported; }
+
+    public long getRowsRejected() { return rowsRejected; }
+
+    public long getBookingsCreated() { return bookingsCreated; }
+
+    public long getOccurrencesSkipped() { return occurrencesSkipped; }
+
+    public String getFailureReason() { return failureReason; }
+
+    public List<String> getErrors() {
+        synchronized (errors) {
+            return new ArrayList<>(errors);
+        }
+    }
+}
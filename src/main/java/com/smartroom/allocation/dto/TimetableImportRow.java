@@ -0,0 +1,16 @@
+package com.smartroom.allocation.dto;
+
+/**
+ * One row of a bulk timetable import: a recurring series booked on behalf of a lecturer.
+ * The room may be given by roomId or roomNumber; username defaults to the admin running the import.
+ */
+public class TimetableImportRow extends RecurringBookingRequest {
+    private String roomNumber;
+    private String username;
+
+    public String getRoomNumber() { return roomNumber; }
+    public void setRoomNumber(String roomNumber) { this.roomNumber = roomNumber; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+}
@@ -21,6 +21,22 @@ public class UserResponseDTO {
     public UserResponseDTO() {
     }
 
+    // Selected directly by UserRepository; totalBookings comes from a COUNT subquery
+    public UserResponseDTO(Long id, String username, String fullName, String email, String department, UserRole role,
+                           Boolean active, Integer points, Integer usageStreak, Long totalBookings, LocalDateTime createdAT) {
+        this.id = id;
+        this.username = username;
+        this.fullName = fullName;
+        this.email = email;
+        this.department = department;
+        this.role = role;
+        this.active = active;
+        this.points = points;
+        this.usageStreak = usageStreak;
+        this.totalBookings = totalBookings != null ? totalBookings.intValue() : 0;
+        this.createdAT = createdAT;
+    }
+
     // Constructor to convert a User entity to a UserResponseDTO
     public UserResponseDTO(User user) {
         this.id = user.getId();
@@ -1,16 +1,23 @@
 package com.smartroom.allocation.entity;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.smartroom.allocation.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
 @Table(name = "rooms")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.ROOMS_REGION)
+@NamedEntityGraph(name = "Room.equipment", attributeNodes = @NamedAttributeNode("equipment"))
 public class Room {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_seq")
+    @SequenceGenerator(name = "rooms_seq", sequenceName = "rooms_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Room number is required")
@@ -35,11 +42,15 @@ public class Room {
 
     private Boolean active = true;
 
-    @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    // Lazy, and loaded for up to 50 rooms per query when touched; list queries that need it use the Room.equipment graph
+    @OneToMany(mappedBy = "room", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.ROOM_EQUIPMENT_REGION)
     @JsonManagedReference
     private List<Equipment> equipment;
 
     @OneToMany(mappedBy = "room", cascade = CascadeType.ALL)
+    @BatchSize(size = 50)
     @JsonManagedReference("room-bookings")
     private List<Booking> bookings;
 
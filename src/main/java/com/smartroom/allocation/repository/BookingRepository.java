@@ -1,20 +1,34 @@
 package com.smartroom.allocation.repository;
 
+import com.smartroom.allocation.dto.BookingResponseDTO;
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.dto.RoomBookingCount;
+import com.smartroom.allocation.dto.RoomBookingSummary;
+import com.smartroom.allocation.dto.SeriesConflict;
 import com.smartroom.allocation.entity.Booking;
 import com.smartroom.allocation.entity.BookingStatus;
 import com.smartroom.allocation.entity.Room;
 import com.smartroom.allocation.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    // Read path for booking lists: DTO columns in one query with room and user joined, no entities loaded
+    String BOOKING_DTO_SELECT = "SELECT new com.smartroom.allocation.dto.BookingResponseDTO(b.id, r.id, r.roomNumber, r.name, " +
+            "u.fullName, u.username, b.purpose, b.startTime, b.endTime, b.status, b.createdAt, b.updatedAt) " +
+            "FROM Booking b JOIN b.room r JOIN b.user u ";
+
     // Count conflicting bookings for a room within a time range
     @Query("SELECT COUNT(b) FROM Booking b WHERE b.room = :room " +
             "AND b.status = 'CONFIRMED' " +
@@ -29,6 +43,26 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     //Find bookings by user and status
     List<Booking> findByUserAndStatus(User user,BookingStatus status);
 
+    // A user's bookings with a status, as DTOs
+    @Query(BOOKING_DTO_SELECT + "WHERE b.user = :user AND b.status = :status")
+    List<BookingResponseDTO> findBookingDTOsByUserAndStatus(@Param("user") User user, @Param("status") BookingStatus status);
+
+    // First keyset page of a user's bookings with a status, latest start first
+    @Query(BOOKING_DTO_SELECT + "WHERE b.user = :user AND b.status = :status ORDER BY b.startTime DESC, b.id DESC")
+    Slice<BookingResponseDTO> findUserBookingPage(@Param("user") User user,
+                                                  @Param("status") BookingStatus status,
+                                                  Pageable pageable);
+
+    // Following keyset pages: the bookings sorting after (startTime, id) in the same order
+    @Query(BOOKING_DTO_SELECT + "WHERE b.user = :user AND b.status = :status " +
+            "AND (b.startTime < :startTime OR (b.startTime = :startTime AND b.id < :id)) " +
+            "ORDER BY b.startTime DESC, b.id DESC")
+    Slice<BookingResponseDTO> findUserBookingPageAfter(@Param("user") User user,
+                                                       @Param("status") BookingStatus status,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("id") Long id,
+                                                       Pageable pageable);
+
     //Find users with active or upcoming bookings for a specific room
 
     List<Booking> findByRoomAndEndTimeAfter(Room room, LocalDateTime currentTime);
@@ -47,13 +81,38 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findUpcomingBookingsForRoom(@Param("room") Room room,
                                               @Param("currentTime") LocalDateTime currentTime);
 
+    // Upcoming confirmed bookings of a room, as DTOs
+    @Query(BOOKING_DTO_SELECT + "WHERE r.id = :roomId AND b.status = 'CONFIRMED' AND b.startTime > :currentTime " +
+            "ORDER BY b.startTime")
+    List<BookingResponseDTO> findUpcomingBookingDTOsForRoom(@Param("roomId") Long roomId,
+                                                            @Param("currentTime") LocalDateTime currentTime);
+
+    // Booking summaries of a set of rooms, for RoomResponseDTO
+    @Query("SELECT b.room.id AS roomId, b.id AS id, b.purpose AS purpose, b.status AS status FROM Booking b " +
+            "WHERE b.room.id IN :roomIds ORDER BY b.id")
+    List<RoomBookingSummary> findBookingSummariesByRoomIds(@Param("roomIds") List<Long> roomIds);
+
+    // Number of upcoming confirmed bookings per room for a set of rooms; rooms without any are left out
+    @Query("SELECT b.room.id AS roomId, COUNT(b) AS upcoming FROM Booking b WHERE b.room.id IN :roomIds " +
+            "AND b.status = 'CONFIRMED' AND b.startTime > :currentTime GROUP BY b.room.id")
+    List<RoomBookingCount> countUpcomingBookingsByRoomIds(@Param("roomIds") List<Long> roomIds,
+                                                          @Param("currentTime") LocalDateTime currentTime);
+
+    // Rooms among the given ones that have a confirmed booking overlapping [startTime, endTime)
+    @Query("SELECT DISTINCT b.room.id FROM Booking b WHERE b.room.id IN :roomIds AND b.status = 'CONFIRMED' " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime")
+    List<Long> findBookedRoomIds(@Param("roomIds") List<Long> roomIds,
+                                 @Param("startTime") LocalDateTime startTime,
+                                 @Param("endTime") LocalDateTime endTime);
+
     // Find bookings by status and updatedAt before a threshold
     @Query("SELECT b FROM Booking b WHERE b.status = :status AND b.updatedAt < :threshold")
     List<Booking> findByStatusAndUpdatedAtBefore(@Param("status") BookingStatus status,
                                                  @Param("threshold") LocalDateTime threshold);
 
-    //new query to help with updating bookings & Find overlapping bookings excluding a specific booking ID
-    @Query("SELECT b FROM Booking b WHERE b.room.id = :roomId AND b.id != :bookingId AND ((b.startTime <= :endTime AND b.endTime >= :startTime))")
+    //new query to help with updating bookings & Find confirmed bookings overlapping [startTime, endTime) excluding a specific booking ID
+    @Query("SELECT b FROM Booking b WHERE b.room.id = :roomId AND b.id != :bookingId AND b.status = 'CONFIRMED' " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime")
     List<Booking> findOverlappingBookingsExcludingCurrent(@Param("roomId") Long roomId, @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime, @Param("bookingId") Long bookingId);
 
     //new query to count all bookings ever made
@@ -69,4 +128,137 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
      * */
     @Query("SELECT b FROM Booking b WHERE b.status = 'CONFIRMED' AND b.endTime < :currentTime")
     List<Booking> findConfirmedBookingsEndedBefore(@Param("currentTime") LocalDateTime currentTime);
-}
\ No newline at end of file
+
+    /**
+     * Keyset-paged slots of confirmed bookings that have ended, in ID order. Used to complete them in chunks.
+     * @param currentTime The current time to compare against booking end times.
+     * @param afterId Only bookings with a larger ID are returned (0 for the first chunk).
+     * @param pageable Chunk size; the page number is ignored by callers, which always pass page 0.
+     * @return The next chunk of ended bookings, without hydrating Booking entities.
+     */
+    @Query("SELECT new com.smartroom.allocation.dto.BookingSlot(b.id, b.room.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.status = 'CONFIRMED' AND b.endTime < :currentTime AND b.id > :afterId ORDER BY b.id")
+    List<BookingSlot> findConfirmedSlotsEndedBefore(@Param("currentTime") LocalDateTime currentTime,
+                                                    @Param("afterId") Long afterId,
+                                                    Pageable pageable);
+
+    /**
+     * Bulk-move bookings from one status to another. Bookings whose status changed in the meantime are left alone.
+     * @param ids Bookings to update
+     * @param from Status the bookings must still have
+     * @param to New status
+     * @return Number of bookings updated
+     */
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to WHERE b.id IN :ids AND b.status = :from")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("from") BookingStatus from, @Param("to") BookingStatus to);
+
+    /**
+     * Loads the slots of all confirmed bookings that have not ended yet, without hydrating Booking entities.
+     * Used to warm the in-memory conflict index.
+     * @param currentTime Bookings ending at or before this time are skipped.
+     * @return Slots of every confirmed booking still holding a room.
+     */
+    @Query("SELECT new com.smartroom.allocation.dto.BookingSlot(b.id, b.room.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.status = 'CONFIRMED' AND b.endTime > :currentTime")
+    List<BookingSlot> findConfirmedSlotsEndingAfter(@Param("currentTime") LocalDateTime currentTime);
+
+    /**
+     * Check whether a confirmed booking holds the room at the given instant.
+     * @param roomId Room to check
+     * @param currentTime Instant to check
+     * @return true if a booking has started and not yet ended
+     */
+    @Query("SELECT COUNT(b) > 0 FROM Booking b WHERE b.room.id = :roomId AND b.status = 'CONFIRMED' " +
+            "AND b.startTime <= :currentTime AND b.endTime > :currentTime")
+    boolean isRoomInUse(@Param("roomId") Long roomId, @Param("currentTime") LocalDateTime currentTime);
+
+    /**
+     * Get the slots of confirmed bookings overlapping a window, across all rooms.
+     * @param startTime Start of the window
+     * @param endTime End of the window
+     * @return Slots of every confirmed booking that overlaps [startTime, endTime), ordered by room and start time.
+     */
+    @Query("SELECT new com.smartroom.allocation.dto.BookingSlot(b.id, b.room.id, b.startTime, b.endTime) " +
+            "FROM Booking b WHERE b.status = 'CONFIRMED' AND b.startTime < :endTime AND b.endTime > :startTime " +
+            "ORDER BY b.room.id, b.startTime")
+    List<BookingSlot> findConfirmedSlotsBetween(@Param("startTime") LocalDateTime startTime,
+                                                @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * Keyset-paged IDs of bookings with a given status last updated before a threshold, in ID order.
+     * @param status Status to match
+     * @param threshold Only bookings updated before this time are returned
+     * @param afterId Only bookings with a larger ID are returned (0 for the first chunk)
+     * @param pageable Chunk size
+     * @return The next chunk of IDs
+     */
+    @Query("SELECT b.id FROM Booking b WHERE b.status = :status AND b.updatedAt < :threshold AND b.id > :afterId ORDER BY b.id")
+    List<Long> findIdsByStatusAndUpdatedAtBefore(@Param("status") BookingStatus status,
+                                                 @Param("threshold") LocalDateTime threshold,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+
+    /**
+     * Copy bookings into the bookings_archive table as jsonb before they are purged.
+     * @param ids Bookings to archive
+     * @return Number of rows archived (rows archived by an earlier, interrupted run are skipped)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO bookings_archive (booking_id, archived_at, payload) " +
+            "SELECT b.id, now(), to_jsonb(b) FROM bookings b WHERE b.id IN (:ids) " +
+            "ON CONFLICT (booking_id) DO NOTHING", nativeQuery = true)
+    int archiveByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Render bookings as JSON documents, one per row, for archiving to a file.
+     * @param ids Bookings to render
+     * @return One JSON document per booking, in ID order
+     */
+    @Query(value = "SELECT CAST(to_jsonb(b) AS text) FROM bookings b WHERE b.id IN (:ids) ORDER BY b.id", nativeQuery = true)
+    List<String> findJsonByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Delete bookings in one statement.
+     * @param ids Bookings to delete
+     * @return Number of bookings deleted
+     */
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Checks a whole series of candidate (start, end) pairs for a room against confirmed bookings in one statement.
+     * The candidates are passed as two PostgreSQL timestamp[] literals and unnested side by side.
+     * @param roomId Room the series is for
+     * @param startTimes Array literal of occurrence start times
+     * @param endTimes Array literal of occurrence end times, in the same order
+     * @return One row per (occurrence, overlapping booking) pair; occurrences without a clash are absent.
+     */
+    @Query(value = "SELECT c.occurrence_index AS \"occurrenceIndex\", b.id AS \"bookingId\" " +
+            "FROM unnest(CAST(:startTimes AS timestamp[]), CAST(:endTimes AS timestamp[])) " +
+            "WITH ORDINALITY AS c(start_time, end_time, occurrence_index) " +
+            "JOIN bookings b ON b.room_id = :roomId AND b.status = 'CONFIRMED' " +
+            "AND b.start_time < c.end_time AND b.end_time > c.start_time " +
+            "ORDER BY c.occurrence_index, b.id", nativeQuery = true)
+    List<SeriesConflict> findSeriesConflicts(@Param("roomId") Long roomId,
+                                             @Param("startTimes") String startTimes,
+                                             @Param("endTimes") String endTimes);
+
+    /**
+     * Checks a whole series of candidate bookings for a room in a single round trip.
+     * @param roomId Room the series is for
+     * @param startTimes Occurrence start times
+     * @param endTimes Occurrence end times, in the same order
+     * @return One row per (occurrence, overlapping booking) pair, with 1-based occurrence indexes.
+     */
+    default List<SeriesConflict> findSeriesConflicts(Long roomId, List<LocalDateTime> startTimes, List<LocalDateTime> endTimes) {
+        return findSeriesConflicts(roomId, toTimestampArray(startTimes), toTimestampArray(endTimes));
+    }
+
+    private static String toTimestampArray(List<LocalDateTime> times) {
+        return times.stream()
+                .map(time -> "\"" + time + "\"")
+                .collect(Collectors.joining(",", "{", "}"));
+    }
+}
@@ -1,9 +1,19 @@
 package com.smartroom.allocation.repository;
 
+import com.smartroom.allocation.dto.EquipmentResponseDTO;
+import com.smartroom.allocation.dto.RoomEquipment;
+import com.smartroom.allocation.dto.RoomEquipmentSummary;
 import com.smartroom.allocation.entity.Equipment;
 import com.smartroom.allocation.entity.EquipmentType;
 import com.smartroom.allocation.entity.Room;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -12,6 +22,9 @@ import java.util.List;
 @Repository
 public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
 
+    String EQUIPMENT_DTO_SELECT = "SELECT new com.smartroom.allocation.dto.EquipmentResponseDTO(e.id, e.name, e.type, " +
+            "e.description, e.working, r.id, r.roomNumber) FROM Equipment e LEFT JOIN e.room r ";
+
     // Find equipment by name
     List<Equipment> findByName(String name);
 
@@ -27,4 +40,26 @@ public interface EquipmentRepository extends JpaRepository<Equipment, Long> {
     // Add this method to delete all equipment associated with a specific room
     @Transactional
     void deleteByRoom(Room room); //not really in use yet
-}
\ No newline at end of file
+
+    // Working equipment types per room, without loading the Equipment entities
+    @Query("SELECT DISTINCT e.room.id AS roomId, e.type AS type FROM Equipment e " +
+            "WHERE e.working = true AND e.room IS NOT NULL AND e.type IS NOT NULL")
+    List<RoomEquipment> findWorkingEquipmentTypes();
+
+    // All equipment as DTOs
+    @Query(EQUIPMENT_DTO_SELECT + "ORDER BY e.id")
+    List<EquipmentResponseDTO> findAllEquipmentDTOs();
+
+    // Working equipment as DTOs
+    @Query(EQUIPMENT_DTO_SELECT + "WHERE e.working = true ORDER BY e.id")
+    List<EquipmentResponseDTO> findWorkingEquipmentDTOs();
+
+    // Keyset page of equipment as DTOs, ordered by ID, starting after :afterId
+    @Query(EQUIPMENT_DTO_SELECT + "WHERE e.id > :afterId ORDER BY e.id")
+    Slice<EquipmentResponseDTO> findEquipmentPage(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Equipment summaries of a set of rooms, for RoomResponseDTO (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT e.room.id AS roomId, e.id AS id, e.name AS name FROM Equipment e WHERE e.room.id IN :roomIds ORDER BY e.id")
+    List<RoomEquipmentSummary> findSummariesByRoomIds(@Param("roomIds") List<Long> roomIds);
+}
@@ -1,10 +1,18 @@
 package com.smartroom.allocation.repository;
 
+import com.smartroom.allocation.dto.RoomProfile;
+import com.smartroom.allocation.dto.RoomResponseDTO;
 import com.smartroom.allocation.entity.Room;
 import com.smartroom.allocation.entity.RoomStatus;
 import com.smartroom.allocation.entity.RoomType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
@@ -14,7 +22,11 @@ import java.util.Optional;
 @Repository
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
-    // Find room by room number
+    String ROOM_DTO_SELECT = "SELECT new com.smartroom.allocation.dto.RoomResponseDTO(r.id, r.roomNumber, r.name, r.capacity, " +
+            "r.building, r.floor, r.location, r.roomType, r.status, r.active) FROM Room r ";
+
+    // Find room by room number (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Room> findByRoomNumber(String roomNumber);
 
     // *** Add this method to check for existence of room number ***
@@ -25,9 +37,23 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     // Find all active rooms
     List<Room> findByActiveTrue();
 
+    // Active rooms as DTOs, without their equipment and bookings (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query(ROOM_DTO_SELECT + "WHERE r.active = true ORDER BY r.id")
+    List<RoomResponseDTO> findActiveRoomDTOs();
+
+    // Keyset page of active rooms as DTOs, ordered by ID, starting after :afterId
+    @Query(ROOM_DTO_SELECT + "WHERE r.active = true AND r.id > :afterId ORDER BY r.id")
+    Slice<RoomResponseDTO> findActiveRoomPage(@Param("afterId") Long afterId, Pageable pageable);
+
     // Find rooms by status
+    @EntityGraph("Room.equipment")
     List<Room> findByStatus(RoomStatus status);
 
+    // Find active rooms with a given status
+    @EntityGraph("Room.equipment")
+    List<Room> findByActiveTrueAndStatus(RoomStatus status);
+
     // Find rooms by type
     List<Room> findByRoomType(RoomType roomType);
 
@@ -35,15 +61,16 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     List<Room> findByBuilding(String building);
 
     // Find rooms with minimum capacity
+    @EntityGraph("Room.equipment")
     List<Room> findByCapacityGreaterThanEqual(int minCapacity);
 
-    // Find available rooms at a specific time (complex query)
+    // Find available rooms with no confirmed booking overlapping [startTime, endTime); the correlated
+    // NOT EXISTS is answered per room from idx_bookings_room_confirmed_time
+    @EntityGraph("Room.equipment")
     @Query("SELECT r FROM Room r WHERE r.active = true AND r.status = 'AVAILABLE' " +
-            "AND r.id NOT IN (" +
-            "SELECT b.room.id FROM Booking b WHERE b.status = 'CONFIRMED' " +
-            "AND ((b.startTime <= :startTime AND b.endTime > :startTime) " +
-            "OR (b.startTime < :endTime AND b.endTime >= :endTime) " +
-            "OR (b.startTime >= :startTime AND b.endTime <= :endTime)))")
+            "AND NOT EXISTS (" +
+            "SELECT 1 FROM Booking b WHERE b.room = r AND b.status = 'CONFIRMED' " +
+            "AND b.startTime < :endTime AND b.endTime > :startTime)")
     List<Room> findAvailableRooms(@Param("startTime") LocalDateTime startTime,
                                   @Param("endTime") LocalDateTime endTime);
 
@@ -55,4 +82,9 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
     //AdminDashboard: Count all active rooms
     long countByActiveTrue();
-}
\ No newline at end of file
+
+    // Rooms that can take new bookings, as lightweight profiles (equipment is loaded separately)
+    @Query("SELECT new com.smartroom.allocation.dto.RoomProfile(r.id, r.roomNumber, r.capacity, r.building) " +
+            "FROM Room r WHERE r.active = true AND (r.status IS NULL OR r.status <> 'MAINTENANCE')")
+    List<RoomProfile> findBookableRoomProfiles();
+}
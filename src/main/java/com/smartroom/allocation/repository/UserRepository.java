@@ -1,9 +1,13 @@
 package com.smartroom.allocation.repository;
 
+import com.smartroom.allocation.dto.UserResponseDTO;
 import com.smartroom.allocation.entity.User;
 import com.smartroom.allocation.entity.UserRole;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 import java.util.Optional;
@@ -11,6 +15,10 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    String USER_DTO_SELECT = "SELECT new com.smartroom.allocation.dto.UserResponseDTO(u.id, u.username, u.fullName, u.email, " +
+            "u.department, u.role, u.active, u.points, u.usageStreak, (SELECT COUNT(b) FROM Booking b WHERE b.user = u), " +
+            "u.createdAt) FROM User u ";
+
     // Find user by username (for authentication)
     Optional<User> findByUsername(String username);
 
@@ -38,4 +46,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     //AdminDashboard: Count all active users
     long countByActiveTrue();
+
+    // Every user as a DTO, with the booking count of each in the same query
+    @Query(USER_DTO_SELECT + "ORDER BY u.id")
+    List<UserResponseDTO> findAllUserDTOs();
+
+    // Keyset page of users as DTOs, ordered by ID, starting after :afterId
+    @Query(USER_DTO_SELECT + "WHERE u.id > :afterId ORDER BY u.id")
+    Slice<UserResponseDTO> findUserPage(@Param("afterId") Long afterId, Pageable pageable);
 }
\ No newline at end of file
@@ -1,16 +1,22 @@
 package com.smartroom.allocation.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.smartroom.allocation.entity.User;
 import com.smartroom.allocation.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -22,6 +28,25 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    /*
+     * UserDetails of recently authenticated users, so that JwtAuthenticationFilter does not query the
+     * database on every request. UserService evicts an entry when it changes or deletes that user; other
+     * instances only see the change once the entry expires, so the TTL bounds how long a disabled account
+     * or a changed role stays in effect there.
+     */
+    private final Cache<String, UserDetails> userDetailsCache;
+
+    public CustomUserDetailsService(@Value("${security.user-cache.ttl:PT1M}") Duration ttl,
+                                    @Value("${security.user-cache.max-size:10000}") long maxSize,
+                                    MeterRegistry meterRegistry) {
+        this.userDetailsCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "userDetails");
+    }
+
     /**
      * Load user by username for Spring Security authentication
      * @param username Username to load
@@ -55,4 +80,25 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .disabled(!user.isActive())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Load user by username, from the cache when it was loaded recently.
+     * For requests that already carry a valid token; logins go through loadUserByUsername.
+     * @param username Username to load
+     * @return UserDetails object
+     * @throws UsernameNotFoundException if the user does not exist
+     */
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadUserByUsername);
+    }
+
+    /**
+     * Drop a user from the cache after their account has changed.
+     * @param username Username of the user
+     */
+    public void evictUser(String username) {
+        if (username != null) {
+            userDetailsCache.invalidate(username);
+        }
+    }
+}
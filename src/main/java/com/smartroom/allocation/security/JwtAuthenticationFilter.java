@@ -57,7 +57,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // Once we get the token, validate it.
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = this.userDetailsService.loadCachedUserByUsername(username);
             logger.info("Authorities for user " + username + ": " + userDetails.getAuthorities());
 
             // if token is valid configure Spring Security to manually set authentication
@@ -1,16 +1,34 @@
 package com.smartroom.allocation.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.TextCodec;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -25,6 +43,42 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Value("${jwt.validated-cache.max-size:10000}")
+    private long validatedCacheMaxSize;
+
+    // Built once from jwt.secret; the secret is read as base64, as jjwt does when given the string itself
+    private Key signingKey;
+
+    private JwtParser parser;
+
+    // Claims of tokens whose signature has already been checked, keyed by SHA-256 of the token and kept until the token expires
+    private Cache<String, Claims> validatedTokens;
+
+    @PostConstruct
+    public void init() {
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS512.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+        validatedTokens = Caffeine.newBuilder()
+                .maximumSize(validatedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
     /**
      * Extract username from JWT token
      */
@@ -57,15 +111,63 @@ public class JwtTokenUtil {
      * Get all claims from JWT token
      */
     private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+        return validateAndGetClaims(token);
+    }
+
+    /**
+     * Verify a token and return all of its claims.
+     * The signature is checked once per token; later calls with the same token only hash it and look it up.
+     * @param token The JWT
+     * @return A copy of the token's claims, so changing it cannot affect later calls with the same token
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, wrongly signed or expired
+     */
+    public Claims validateAndGetClaims(String token) {
+        String key = hash(token);
+        Claims claims = validatedTokens.getIfPresent(key);
+        if (claims != null) {
+            if (claims.getExpiration().after(new Date())) {
+                return copyOf(claims);
+            }
+            validatedTokens.invalidate(key);
+            throw new ExpiredJwtException(null, copyOf(claims), "JWT expired at " + claims.getExpiration());
+        }
+        // parseClaimsJws rejects expired tokens, so only live ones are cached
+        claims = parser.parseClaimsJws(token).getBody();
+        if (claims.getExpiration() != null) {
+            validatedTokens.put(key, claims);
+        }
+        return copyOf(claims);
+    }
+
+    // Claims are a mutable map, and list or map claims such as authorities are mutable too; copy both levels
+    private static Claims copyOf(Claims claims) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        claims.forEach((name, value) -> {
+            if (value instanceof Collection<?> values) {
+                copy.put(name, new ArrayList<>(values));
+            } else if (value instanceof Map<?, ?> values) {
+                copy.put(name, new LinkedHashMap<>(values));
+            } else {
+                copy.put(name, value);
+            }
+        });
+        return new DefaultClaims(copy);
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 
     /**
      * Check if JWT token is expired
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     /**
@@ -91,7 +193,7 @@ public class JwtTokenUtil {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
-                .signWith(SignatureAlgorithm.HS512, secret)
+                .signWith(SignatureAlgorithm.HS512, signingKey)
                 .compact();
     }
 
@@ -101,10 +203,11 @@ public class JwtTokenUtil {
     public Boolean validateToken(String token, UserDetails userDetails) {
 
         try { // ADD THIS TRY-CATCH
-            final String username = getUsernameFromToken(token); // [cite: 243]
-            boolean isValid = (username.equals(userDetails.getUsername()) && !isTokenExpired(token)); // [cite: 244]
+            final Claims claims = validateAndGetClaims(token);
+            final String username = claims.getSubject(); // [cite: 243]
+            boolean isValid = (username.equals(userDetails.getUsername()) && !isTokenExpired(claims)); // [cite: 244]
             logger.info("Validating token for user: " + username + ". Is valid? " + isValid); // ADD THIS
-            if (isTokenExpired(token)) {
+            if (isTokenExpired(claims)) {
                 logger.warn("Token for user " + username + " is expired."); // ADD THIS
             }
             return isValid;
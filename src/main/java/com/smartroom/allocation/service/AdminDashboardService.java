@@ -1,15 +1,25 @@
 package com.smartroom.allocation.service;
 
+import com.smartroom.allocation.config.HibernateCacheConfig;
 import com.smartroom.allocation.dto.AdminDashboardStatsDTO;
+import com.smartroom.allocation.dto.OccupancyHeatmapDTO;
 import com.smartroom.allocation.entity.BookingStatus;
 import com.smartroom.allocation.entity.RoomStatus;
 import com.smartroom.allocation.repository.BookingRepository;
 import com.smartroom.allocation.repository.RoomRepository;
 import com.smartroom.allocation.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class AdminDashboardService {
@@ -23,6 +33,12 @@ public class AdminDashboardService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RoomOccupancyBitmap roomOccupancyBitmap;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     /**
      * Fetches all necessary statistics for the admin dashboard.
      * @return AdminDashboardStatsDTO containing aggregated data.
@@ -42,4 +58,49 @@ public class AdminDashboardService {
                 totalActiveUsers
         );
     }
+
+    /**
+     * Builds the busy-ness heatmap from the occupancy bitmaps.
+     * Days outside the bitmap horizon (today plus the next year) are left out.
+     * @param from First day of the heatmap
+     * @param to Last day of the heatmap (inclusive)
+     * @return Busy room counts per 15-minute slot for each day
+     */
+    public OccupancyHeatmapDTO getOccupancyHeatmap(LocalDate from, LocalDate to) {
+        OccupancyHeatmapDTO heatmap = new OccupancyHeatmapDTO(RoomOccupancyBitmap.SLOT_MINUTES, (int) roomRepository.countByActiveTrue());
+        LocalDate horizonStart = roomOccupancyBitmap.getHorizonStart();
+        if (horizonStart == null) {
+            return heatmap;
+        }
+        List<int[]> days = roomOccupancyBitmap.heatmap(from, to);
+        LocalDate day = from.isBefore(horizonStart) ? horizonStart : from;
+        for (int[] busyRooms : days) {
+            heatmap.getDays().add(new OccupancyHeatmapDTO.Day(day, busyRooms));
+            day = day.plusDays(1);
+        }
+        return heatmap;
+    }
+
+    /**
+     * Hit, miss and put counts of each second-level cache region since startup.
+     * Counts stay at zero unless hibernate.generate_statistics is on.
+     * @return Statistics per region name
+     */
+    public Map<String, Map<String, Long>> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Long>> regions = new LinkedHashMap<>();
+        for (String region : HibernateCacheConfig.REGIONS) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("hits", regionStatistics.getHitCount());
+            counts.put("misses", regionStatistics.getMissCount());
+            counts.put("puts", regionStatistics.getPutCount());
+            counts.put("elements", regionStatistics.getElementCountInMemory());
+            regions.put(region, counts);
+        }
+        return regions;
+    }
 }
@@ -0,0 +1,40 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.entity.Booking;
+
+/**
+ * Published by BookingService whenever the time a booking holds a room changes.
+ * previous is the slot held before the change and current the slot held after it;
+ * either is null when the booking did not (or no longer does) hold the room.
+ */
+public class BookingChangedEvent {
+    private final BookingSlot previous;
+    private final BookingSlot current;
+
+    public BookingChangedEvent(BookingSlot previous, BookingSlot current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    /**
+     * A booking that now holds its room (new, or updated in place).
+     * @param previous Slot held before the change, or null for a new booking
+     * @param booking The saved booking
+     */
+    public static BookingChangedEvent of(BookingSlot previous, Booking booking) {
+        return new BookingChangedEvent(previous, BookingSlot.confirmedSlotOf(booking));
+    }
+
+    /**
+     * A booking that no longer holds its room (cancelled or deleted).
+     * @param booking Booking in its state before the change
+     */
+    public static BookingChangedEvent released(Booking booking) {
+        return new BookingChangedEvent(BookingSlot.confirmedSlotOf(booking), null);
+    }
+
+    public BookingSlot getPrevious() { return previous; }
+
+    public BookingSlot getCurrent() { return current; }
+}
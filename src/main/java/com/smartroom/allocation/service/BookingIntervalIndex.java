@@ -0,0 +1,237 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory index of the CONFIRMED bookings that have not ended yet, kept per room and sorted by start time.
+ * Lets BookingService answer "does this window clash with anything?" without a database round trip.
+ * The index is warmed on startup, kept in sync through BookingChangedEvent after each commit, and rebuilt
+ * periodically so that writes made by other instances are picked up. The database remains the final authority.
+ */
+@Component
+public class BookingIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingIntervalIndex.class);
+
+    private static final Comparator<BookingSlot> BY_START_TIME = Comparator
+            .comparing(BookingSlot::getStartTime)
+            .thenComparing(BookingSlot::getBookingId);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${booking.conflict-index.enabled:true}")
+    private boolean enabled;
+
+    private volatile Map<Long, RoomTimeline> timelines = new ConcurrentHashMap<>();
+
+    // Bookings ending after this instant are guaranteed to be in the index; null until the first warm-up.
+    private volatile LocalDateTime coveredFrom;
+
+    // Non-null while a rebuild is running: changes are recorded here and replayed onto the new index.
+    private volatile Queue<BookingChangedEvent> rebuildLog;
+
+    /**
+     * Sorted bookings of a single room. All access is synchronized on the timeline itself.
+     */
+    private static final class RoomTimeline {
+        private final NavigableSet<BookingSlot> slots = new TreeSet<>(BY_START_TIME);
+        private final Map<Long, BookingSlot> slotsById = new HashMap<>();
+        // Longest booking ever added; bounds how far back a clashing booking can start.
+        private Duration longest = Duration.ZERO;
+
+        synchronized void put(BookingSlot slot) {
+            BookingSlot existing = slotsById.put(slot.getBookingId(), slot);
+            if (existing != null) {
+                slots.remove(existing);
+            }
+            slots.add(slot);
+            Duration length = Duration.between(slot.getStartTime(), slot.getEndTime());
+            if (length.compareTo(longest) > 0) {
+                longest = length;
+            }
+        }
+
+        synchronized void remove(Long bookingId) {
+            BookingSlot existing = slotsById.remove(bookingId);
+            if (existing != null) {
+                slots.remove(existing);
+            }
+        }
+
+        synchronized List<BookingSlot> conflicts(LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
+            List<BookingSlot> conflicting = new ArrayList<>();
+            // Only bookings starting within [startTime - longest, endTime) can overlap the window.
+            BookingSlot from = new BookingSlot(Long.MIN_VALUE, null, startTime.minus(longest), null);
+            BookingSlot to = new BookingSlot(Long.MIN_VALUE, null, endTime, null);
+            for (BookingSlot slot : slots.subSet(from, true, to, false)) {
+                if (slot.overlaps(startTime, endTime) && !slot.getBookingId().equals(excludeBookingId)) {
+                    conflicting.add(slot);
+                }
+            }
+            return conflicting;
+        }
+    }
+
+    /**
+     * Load every confirmed booking that has not ended yet once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Periodically rebuild the index from the database. This drops bookings that have ended
+     * and picks up bookings written by other application instances.
+     */
+    @Scheduled(fixedDelayString = "${booking.conflict-index.refresh-ms:300000}",
+            initialDelayString = "${booking.conflict-index.refresh-ms:300000}")
+    public void refresh() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    private synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Queue<BookingChangedEvent> log = new ConcurrentLinkedQueue<>();
+        rebuildLog = log;
+        try {
+            LocalDateTime snapshotTime = LocalDateTime.now();
+            List<BookingSlot> slots = bookingRepository.findConfirmedSlotsEndingAfter(snapshotTime);
+
+            Map<Long, RoomTimeline> rebuilt = new ConcurrentHashMap<>();
+            for (BookingSlot slot : slots) {
+                rebuilt.computeIfAbsent(slot.getRoomId(), id -> new RoomTimeline()).put(slot);
+            }
+            timelines = rebuilt;
+            rebuildLog = null;
+            // Replay changes committed while the snapshot was being loaded; applying them twice is harmless.
+            for (BookingChangedEvent event : log) {
+                apply(event);
+            }
+            coveredFrom = snapshotTime;
+            logger.info("Booking conflict index loaded {} bookings across {} rooms in {} ms",
+                    slots.size(), rebuilt.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            rebuildLog = null;
+            logger.error("Failed to load booking conflict index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Keep the index in sync with committed booking changes.
+     * Runs after the surrounding transaction commits, or immediately when there is none.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Queue<BookingChangedEvent> log = rebuildLog;
+        if (log != null) {
+            log.add(event);
+        }
+        apply(event);
+    }
+
+    private void apply(BookingChangedEvent event) {
+        BookingSlot previous = event.getPrevious();
+        BookingSlot current = event.getCurrent();
+        if (previous != null) {
+            RoomTimeline timeline = timelines.get(previous.getRoomId());
+            if (timeline != null) {
+                timeline.remove(previous.getBookingId());
+            }
+        }
+        if (current != null) {
+            timelines.computeIfAbsent(current.getRoomId(), id -> new RoomTimeline()).put(current);
+        }
+    }
+
+    /**
+     * Check whether the index can answer conflict queries for a window starting at the given time.
+     * @param startTime Start of the window to check
+     * @return true if the index is loaded and holds every booking that could overlap the window
+     */
+    public boolean covers(LocalDateTime startTime) {
+        LocalDateTime from = coveredFrom;
+        return enabled && from != null && !startTime.isBefore(from);
+    }
+
+    /**
+     * Find confirmed bookings of a room that overlap [startTime, endTime).
+     * An empty answer clears the window; hits may be stale and must be confirmed against the database.
+     * @param roomId Room to check
+     * @param startTime Start of the window
+     * @param endTime End of the window
+     * @param excludeBookingId Booking to ignore (the one being updated), or null
+     * @return IDs of the overlapping bookings, empty if the room is free
+     */
+    public List<Long> findConflicts(Long roomId, LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
+        return findConflictingSlots(roomId, startTime, endTime, excludeBookingId).stream()
+                .map(BookingSlot::getBookingId)
+                .toList();
+    }
+
+    /**
+     * Find confirmed bookings of a room that overlap [startTime, endTime), with their times.
+     * @param roomId Room to check
+     * @param startTime Start of the window
+     * @param endTime End of the window
+     * @param excludeBookingId Booking to ignore, or null
+     * @return Slots of the overlapping bookings in start order, empty if the room is free
+     */
+    public List<BookingSlot> findConflictingSlots(Long roomId, LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
+        RoomTimeline timeline = timelines.get(roomId);
+        if (timeline == null) {
+            return List.of();
+        }
+        return timeline.conflicts(startTime, endTime, excludeBookingId);
+    }
+
+    /**
+     * Drop a single booking, used when bookings are changed in bulk without a BookingChangedEvent.
+     * @param slot Slot of the booking to drop
+     */
+    public void remove(BookingSlot slot) {
+        RoomTimeline timeline = timelines.get(slot.getRoomId());
+        if (timeline != null) {
+            timeline.remove(slot.getBookingId());
+        }
+    }
+
+    /**
+     * Drop every booking of a room, used when the room itself is deleted.
+     * @param roomId Room that was deleted
+     */
+    public void evictRoom(Long roomId) {
+        timelines.remove(roomId);
+    }
+}
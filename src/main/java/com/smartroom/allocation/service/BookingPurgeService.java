@@ -0,0 +1,164 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.entity.BookingStatus;
+import com.smartroom.allocation.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Purges old cancelled bookings in bounded chunks. IDs are read with keyset iteration and each chunk is
+ * archived (optionally) and deleted in its own short transaction, so locks stay short and memory stays flat
+ * however large the backlog is.
+ *
+ * Archive modes (booking.purge.archive-mode):
+ * NONE - delete only;
+ * TABLE - copy each row into bookings_archive as jsonb (compressed by PostgreSQL) in the same transaction as the delete;
+ * FILE - append each row to a gzip-compressed NDJSON file under booking.purge.archive-dir and fsync it before
+ * the chunk's delete commits.
+ */
+@Service
+public class BookingPurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingPurgeService.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    public enum ArchiveMode { NONE, TABLE, FILE }
+
+    /** Open archive file: the writer rows go through and the channel forced to disk after each chunk. */
+    private record ArchiveFile(BufferedWriter writer, FileChannel channel) { }
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${booking.purge.retention-days:30}")
+    private int retentionDays;
+
+    @Value("${booking.purge.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.purge.archive-mode:NONE}")
+    private ArchiveMode archiveMode;
+
+    @Value("${booking.purge.archive-dir:archive}")
+    private String archiveDir;
+
+    private final Counter purgedCounter;
+    private final Timer purgeTimer;
+
+    public BookingPurgeService(MeterRegistry meterRegistry) {
+        this.purgedCounter = Counter.builder("bookings.purged")
+                .description("Cancelled bookings deleted by the purge job")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("bookings.purge.duration")
+                .description("Time taken by each purge run")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delete cancelled bookings not updated for the retention period, archiving them first if configured.
+     * @return Number of bookings purged
+     */
+    public int purgeCancelledBookings() {
+        return purgeTimer.record(() -> {
+            LocalDateTime threshold = LocalDateTime.now().minusDays(retentionDays);
+            return archiveMode == ArchiveMode.FILE ? purgeToFile(threshold) : purge(threshold, null);
+        });
+    }
+
+    private int purgeToFile(LocalDateTime threshold) {
+        Path file = Paths.get(archiveDir, "cancelled-bookings-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".ndjson.gz");
+        try {
+            Files.createDirectories(file.getParent());
+            int purged;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                // syncFlush makes flush() push every compressed byte written so far to the channel
+                GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel), true);
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8));
+                purged = purge(threshold, new ArchiveFile(writer, channel));
+                writer.flush();
+                gzip.finish();
+                channel.force(true);
+            }
+            if (purged == 0) {
+                Files.deleteIfExists(file);
+            } else {
+                logger.info("Archived {} purged bookings to {}", purged, file);
+            }
+            return purged;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write booking archive " + file, e);
+        }
+    }
+
+    private int purge(LocalDateTime threshold, ArchiveFile archiveFile) {
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        int purged = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = bookingRepository.findIdsByStatusAndUpdatedAtBefore(BookingStatus.CANCELLED, threshold, afterId, chunk);
+            if (ids.isEmpty()) {
+                break;
+            }
+            Integer deleted = transactionTemplate.execute(status -> {
+                archive(ids, archiveFile);
+                return bookingRepository.deleteByIds(ids);
+            });
+            int count = deleted != null ? deleted : 0;
+            purged += count;
+            purgedCounter.increment(count);
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    private void archive(List<Long> ids, ArchiveFile archiveFile) {
+        if (archiveMode == ArchiveMode.TABLE) {
+            bookingRepository.archiveByIds(ids);
+        } else if (archiveMode == ArchiveMode.FILE) {
+            try {
+                BufferedWriter writer = archiveFile.writer();
+                for (String json : bookingRepository.findJsonByIds(ids)) {
+                    writer.write(json);
+                    writer.newLine();
+                }
+                // Rows must be on disk before their delete commits
+                writer.flush();
+                archiveFile.channel().force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write booking archive", e);
+            }
+        }
+    }
+}
@@ -1,21 +1,37 @@
 package com.smartroom.allocation.service;
 
 import com.smartroom.allocation.dto.BookingResponseDTO;
+import com.smartroom.allocation.dto.BookingSlot;
 import com.smartroom.allocation.dto.BookingUpdateDTO;
+import com.smartroom.allocation.dto.PageCursor;
+import com.smartroom.allocation.dto.RecurringBookingReport;
 import com.smartroom.allocation.dto.RecurringBookingRequest;
+import com.smartroom.allocation.dto.SeriesConflict;
 import com.smartroom.allocation.entity.*;
+import com.smartroom.allocation.exception.BookingConflictException;
 import com.smartroom.allocation.exception.ResourceNotFoundException;
 import com.smartroom.allocation.repository.BookingRepository;
 import com.smartroom.allocation.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @Service
 public class BookingService {
@@ -30,26 +46,104 @@ public class BookingService {
     private UserService userService;
 
     @Autowired
-    private NotificationService notificationService;
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private RoomBookingLocks roomBookingLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${booking.completion.chunk-size:1000}")
+    private int completionChunkSize;
+
+    // SQLSTATE raised by PostgreSQL when the bookings_no_overlap exclusion constraint rejects a row
+    private static final String EXCLUSION_VIOLATION = "23P01";
+
+    /**
+     * Check whether a room already has a confirmed booking overlapping [startTime, endTime).
+     * The in-memory index can only clear a window: it may still hold bookings cancelled or moved on
+     * other instances since its last refresh, so every hit is confirmed against the database.
+     * @param room Room to check
+     * @param startTime Start of the window
+     * @param endTime End of the window
+     * @param excludeBookingId Booking to ignore (the one being updated), or null
+     * @return true if the window clashes with an existing booking
+     */
+    private boolean hasConflict(Room room, LocalDateTime startTime, LocalDateTime endTime, Long excludeBookingId) {
+        if (bookingIntervalIndex.covers(startTime)
+                && bookingIntervalIndex.findConflicts(room.getId(), startTime, endTime, excludeBookingId).isEmpty()) {
+            return false;
+        }
+        if (excludeBookingId == null) {
+            return bookingRepository.countConflictingBookings(room, startTime, endTime) > 0;
+        }
+        return !bookingRepository.findOverlappingBookingsExcludingCurrent(room.getId(), startTime, endTime, excludeBookingId).isEmpty();
+    }
+
+    /**
+     * Check every occurrence of a series against the room's confirmed bookings in one go.
+     * A series the in-memory index clears is accepted straight away; otherwise a single query gives the answer.
+     * @param room Room the series is for
+     * @param occurrences Candidate bookings, in series order
+     * @return Conflicting booking IDs keyed by the 0-based position of each clashing occurrence; empty if all are free
+     */
+    Map<Integer, List<Long>> findSeriesConflicts(Room room, List<Booking> occurrences) {
+        Map<Integer, List<Long>> conflicts = new LinkedHashMap<>();
+        if (occurrences.isEmpty()) {
+            return conflicts;
+        }
+        LocalDateTime seriesStart = occurrences.stream().map(Booking::getStartTime).min(LocalDateTime::compareTo).get();
+        if (bookingIntervalIndex.covers(seriesStart) && occurrences.stream().allMatch(occurrence -> bookingIntervalIndex
+                .findConflicts(room.getId(), occurrence.getStartTime(), occurrence.getEndTime(), null).isEmpty())) {
+            return conflicts;
+        }
+        // Index hits may be stale, so the database decides which occurrences really clash
+        List<LocalDateTime> startTimes = occurrences.stream().map(Booking::getStartTime).toList();
+        List<LocalDateTime> endTimes = occurrences.stream().map(Booking::getEndTime).toList();
+        for (SeriesConflict conflict : bookingRepository.findSeriesConflicts(room.getId(), startTimes, endTimes)) {
+            // The query numbers occurrences from 1
+            int position = conflict.getOccurrenceIndex().intValue() - 1;
+            conflicts.computeIfAbsent(position, i -> new ArrayList<>()).add(conflict.getBookingId());
+        }
+        return conflicts;
+    }
+
+    /**
+     * Save bookings and flush them straight away, so a clash rejected by the database surfaces here as a conflict.
+     * @param write The save operation to run
+     * @param message Message for the conflict raised if the exclusion constraint is violated
+     * @return Result of the save operation
+     * @throws BookingConflictException if another confirmed booking already holds the room
+     */
+    <T> T saveBookings(Supplier<T> write, String message) {
+        try {
+            T saved = write.get();
+            bookingRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION.equals(sqlException.getSQLState())) {
+                throw new BookingConflictException(message, e);
+            }
+            throw e;
+        }
+    }
 
     /**
      * Create a new single booking (non-recurring).
      * @param booking Booking to create
      * @return Created booking
-     * @throws IllegalArgumentException if there's a conflict or invalid booking details
+     * @throws IllegalArgumentException if the booking details are invalid
+     * @throws BookingConflictException if the room is already booked for the specified time
      */
     public Booking createBooking(Booking booking) {
-        // Check for booking conflicts
-        Long conflicts = bookingRepository.countConflictingBookings(
-                booking.getRoom(),
-                booking.getStartTime(),
-                booking.getEndTime()
-        );
-
-        if (conflicts > 0) {
-            throw new IllegalArgumentException("Room is already booked for the specified time");
-        }
-
         // Validate booking time (must be in the future)
         if (booking.getStartTime().isBefore(LocalDateTime.now())) {
             throw new IllegalArgumentException("Cannot book rooms in the past");
@@ -59,18 +153,30 @@ public class BookingService {
             throw new IllegalArgumentException("End time must be after start time");
         }
 
-        // Set Booking status to CONFIRMED
-        booking.setStatus(BookingStatus.CONFIRMED);
+        // Check and save under the room lock so concurrent requests for the same room are serialized
+        Booking savedBooking = transactionTemplate.execute(status -> {
+            roomBookingLocks.lockUntilTransactionEnds(booking.getRoom().getId());
 
-        // Save the booking
-        Booking savedBooking = bookingRepository.save(booking);
+            // Check for booking conflicts
+            if (hasConflict(booking.getRoom(), booking.getStartTime(), booking.getEndTime(), null)) {
+                throw new BookingConflictException("Room is already booked for the specified time");
+            }
+
+            // Set Booking status to CONFIRMED
+            booking.setStatus(BookingStatus.CONFIRMED);
+
+            // Save the booking
+            Booking saved = saveBookings(() -> bookingRepository.save(booking),
+                    "Room is already booked for the specified time");
+            eventPublisher.publishEvent(BookingChangedEvent.of(null, saved));
+            // Queue the confirmation email with the booking, so it is only sent if the booking commits
+            notificationOutbox.bookingConfirmed(saved);
+            return saved;
+        });
 
         // Update user points for gamification (5 points per booking)
         userService.updateUserPoints(booking.getUser().getId(), 5);
 
-        // Send notification
-        notificationService.sendBookingConfirmation(savedBooking);
-
         return savedBooking;
     }
 
@@ -78,16 +184,84 @@ public class BookingService {
      * ADDED: Creates a series of recurring bookings based on a request, with a specified weekly interval.
      * @param request The recurring booking details, including the interval.\
      * @param user The user making the booking.
-     * @ return A list of the created booking objects.
+     * @ return A report of the created bookings and, in skipConflicts mode, the occurrences that were skipped.
      */
     @Transactional
-    public List<Booking> createRecurringBookings(RecurringBookingRequest request, User user) {
+    public RecurringBookingReport createRecurringBookings(RecurringBookingRequest request, User user) {
         //UPDATED: Fetch room by ID instead of room number
         Room room = roomRepository.findById(request.getRoomId())
                 .orElseThrow(() -> new IllegalArgumentException("Room with ID " + request.getRoomId() + " not found."));
 
-        List<Booking> newBookings = new ArrayList<>();
         String recurringGroupId = UUID.randomUUID().toString();
+        List<Booking> newBookings = expandOccurrences(request, room, user, recurringGroupId);
+
+        roomBookingLocks.lockUntilTransactionEnds(room.getId());
+
+        // Validate the whole series with one lookup instead of one query per occurrence
+        Map<Integer, List<Long>> conflicts = findSeriesConflicts(room, newBookings);
+        RecurringBookingReport report = new RecurringBookingReport(recurringGroupId);
+        if (!conflicts.isEmpty()) {
+            if (!request.isSkipConflicts()) {
+                LocalDate conflictDate = newBookings.get(conflicts.keySet().iterator().next()).getStartTime().toLocalDate();
+                throw new BookingConflictException("A conflict was found for the booking on " + conflictDate +
+                        ". The entire recurring booking series has been cancelled to ensure consistency.");
+            }
+            // Partial-success mode: report the clashing occurrences and book the rest
+            List<Booking> freeBookings = new ArrayList<>();
+            for (int i = 0; i < newBookings.size(); i++) {
+                Booking occurrence = newBookings.get(i);
+                List<Long> clashing = conflicts.get(i);
+                if (clashing == null) {
+                    freeBookings.add(occurrence);
+                } else {
+                    report.getSkippedOccurrences().add(new RecurringBookingReport.SkippedOccurrence(
+                            occurrence.getStartTime(), occurrence.getEndTime(), clashing));
+                }
+            }
+            newBookings = freeBookings;
+            if (newBookings.isEmpty()) {
+                return report;
+            }
+        }
+
+        //save all booking instances to the database in as single transaction
+        List<Booking> bookingsToSave = newBookings;
+        List<Booking> savedBookings = saveBookings(() -> bookingRepository.saveAll(bookingsToSave),
+                "Another booking for this room was made while the series was being created. " +
+                        "The entire recurring booking series has been cancelled to ensure consistency.");
+        for (Booking savedBooking : savedBookings) {
+            eventPublisher.publishEvent(BookingChangedEvent.of(null, savedBooking));
+            report.getCreatedBookings().add(new BookingResponseDTO(savedBooking));
+        }
+
+        //Update user points based on the number of bookings created
+        userService.updateUserPoints(user.getId(), savedBookings.size() * 5);
+
+        //  MODIFIED: Call the new summary notification method once for the entire series
+        notificationOutbox.recurringSeriesConfirmed(savedBookings);
+
+        return report;
+    }
+
+    /**
+     * Expand a recurring booking request into its individual occurrences. Nothing is saved.
+     * @param request The recurring booking details
+     * @param room Room to book
+     * @param user Owner of the bookings
+     * @param recurringGroupId Group ID shared by every occurrence of the series
+     * @return The unsaved occurrences, in date order
+     * @throws IllegalArgumentException if the request is incomplete, the times are invalid or no date matches
+     */
+    List<Booking> expandOccurrences(RecurringBookingRequest request, Room room, User user, String recurringGroupId) {
+        if (request.getSemesterStartDate() == null || request.getSemesterEndDate() == null || request.getDayOfWeek() == null
+                || request.getStartTime() == null || request.getEndTime() == null) {
+            throw new IllegalArgumentException("Semester dates, day of week, start time and end time are required");
+        }
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+
+        List<Booking> newBookings = new ArrayList<>();
 
         int interval = (request.getIntervalWeeks() > 0) ? request.getIntervalWeeks() : 1;
 
@@ -102,13 +276,6 @@ public class BookingService {
             LocalDateTime startTime = LocalDateTime.of(currentDate, request.getStartTime());
             LocalDateTime endTime = LocalDateTime.of(currentDate, request.getEndTime());
 
-            // Check for conflicts for this specific instance
-            Long conflicts = bookingRepository.countConflictingBookings(room, startTime, endTime);
-            if (conflicts > 0) {
-                throw new IllegalArgumentException("A conflict was found for the booking on " + currentDate +
-                        ". The entire recurring booking series has been cancelled to ensure consistency.");
-            }
-
             // Create a new booking instance
             Booking booking = new Booking();
             booking.setUser(user);
@@ -130,16 +297,7 @@ public class BookingService {
         if (newBookings.isEmpty()) {
             throw new IllegalArgumentException("No dates matching your criteria were found within the specified semester range.");
         }
-        //save all booking instances to the database in as single transaction
-        List<Booking> savedBookings = bookingRepository.saveAll(newBookings);
-
-        //Update user points based on the number of bookings created
-        userService.updateUserPoints(user.getId(), savedBookings.size() * 5);
-
-        //  MODIFIED: Call the new summary notification method once for the entire series
-        notificationService.sendRecurringBookingConfirmationSummary(savedBookings);
-
-        return savedBookings;
+        return newBookings;
     }
 
     /**
@@ -148,7 +306,8 @@ public class BookingService {
      * @param updateDTO the DTo containing the updated booking details.
      * @param username The username of the currently authenticated user.
      * @return The updated booking.
-     * @throws IllegalArgumentException if the boking is in the past or the new time slot is invlaid or unavailable.
+     * @throws IllegalArgumentException if the boking is in the past or the new time slot is invlaid.
+     * @throws BookingConflictException if the new time slot is unavailable.
      * @throws ResourceNotFoundException if the booking is not found.
      * @throws SecurityException if the user does not own the booking*/
     @Transactional
@@ -166,6 +325,8 @@ public class BookingService {
             throw new IllegalArgumentException("Cannot update a booking that has already started or is in the past.");
         }
 
+        roomBookingLocks.lockUntilTransactionEnds(existingBooking.getRoom().getId());
+
         // Store old booking details for notification BEFORE potential updates
         Booking oldBooking = new Booking();
         oldBooking.setId(existingBooking.getId());
@@ -174,6 +335,7 @@ public class BookingService {
         oldBooking.setPurpose(existingBooking.getPurpose());
         oldBooking.setRoom(existingBooking.getRoom());
         oldBooking.setUser(existingBooking.getUser());
+        oldBooking.setStatus(existingBooking.getStatus());
 
         LocalDateTime proposedStartTime = updateDTO.getStartTime();
         LocalDateTime proposedEndTime = updateDTO.getEndTime();
@@ -192,14 +354,8 @@ public class BookingService {
         boolean timesChanged = !effectiveNewStartTime.equals(existingBooking.getStartTime()) || !effectiveNewEndTime.equals(existingBooking.getEndTime());
 
         if (timesChanged) {
-            List<Booking> overlappingBookings = bookingRepository.findOverlappingBookingsExcludingCurrent(
-                    existingBooking.getRoom().getId(),
-                    effectiveNewStartTime,
-                    effectiveNewEndTime,
-                    existingBooking.getId()
-            );
-            if (!overlappingBookings.isEmpty()) {
-                throw new IllegalArgumentException("Room is not available during the new specified time.");
+            if (hasConflict(existingBooking.getRoom(), effectiveNewStartTime, effectiveNewEndTime, existingBooking.getId())) {
+                throw new BookingConflictException("Room is not available during the new specified time.");
             }
             // Update the booking times only if they changed and are available
             existingBooking.setStartTime(effectiveNewStartTime);
@@ -211,10 +367,12 @@ public class BookingService {
             existingBooking.setPurpose(proposedPurpose);
         }
 
-        Booking updatedBooking = bookingRepository.save(existingBooking);
+        Booking updatedBooking = saveBookings(() -> bookingRepository.save(existingBooking),
+                "Room is not available during the new specified time.");
+        eventPublisher.publishEvent(BookingChangedEvent.of(BookingSlot.confirmedSlotOf(oldBooking), updatedBooking));
 
         // 6. Send notification email
-        notificationService.sendBookingUpdatedEmail(oldBooking, updatedBooking);
+        notificationOutbox.bookingUpdated(oldBooking, updatedBooking);
 
         return new BookingResponseDTO(updatedBooking); // Return DTO
     }
@@ -243,16 +401,19 @@ public class BookingService {
             throw new RuntimeException("You don't have permission to cancel this booking");
         }
 
+        BookingSlot previousSlot = BookingSlot.confirmedSlotOf(booking);
+
         // Update booking status
         booking.setStatus(BookingStatus.CANCELLED);
         booking.setUpdatedAt(LocalDateTime.now());
 
-        Booking cancelledBooking = bookingRepository.save(booking);
-
-        // Send notification about cancellation
-        notificationService.sendCancellationNotification(cancelledBooking);
-
-        return cancelledBooking;
+        // Save the cancellation and queue its email in one transaction
+        return transactionTemplate.execute(status -> {
+            Booking cancelledBooking = bookingRepository.save(booking);
+            eventPublisher.publishEvent(BookingChangedEvent.of(previousSlot, cancelledBooking));
+            notificationOutbox.bookingCancelled(cancelledBooking);
+            return cancelledBooking;
+        });
     }
 
     /**
@@ -270,6 +431,7 @@ public class BookingService {
                 throw new SecurityException("You do not have permission to delete this booking.");
             }
             bookingRepository.deleteById(bookingId);
+            eventPublisher.publishEvent(BookingChangedEvent.released(booking));
             return true;
         }
         return false;
@@ -277,22 +439,34 @@ public class BookingService {
     /**
      * Fetches and updates the status of bookings that have ended.
      * This method is intended to be called by a scheduled task.
+     * Ended bookings are read as ID/room slots in keyset chunks and completed with one bulk UPDATE per chunk,
+     * each chunk in its own transaction, so a large backlog never hydrates Booking entities.
+     * @return Number of bookings moved to COMPLETED
      */
-    @Transactional
-    public void updateCompletedBookingsStatus() {
+    public int updateCompletedBookingsStatus() {
         LocalDateTime now = LocalDateTime.now();
-        List<Booking> bookingsToComplete = bookingRepository.findConfirmedBookingsEndedBefore(now);
-
-        for (Booking booking : bookingsToComplete) {
-            booking.setStatus(BookingStatus.COMPLETED);
-            bookingRepository.save(booking);
-            // Optionally, you could send a notification here, but usually not needed for auto-completion
-        }
-        // Log the number of bookings updated
-        // This logging is typically done in the scheduled task itself, but can be here too.
-        if (!bookingsToComplete.isEmpty()) {
-            System.out.printf("Updated %d bookings to COMPLETED status.%n", bookingsToComplete.size());
+        Pageable chunk = PageRequest.of(0, completionChunkSize);
+        int completed = 0;
+        long afterId = 0;
+        while (true) {
+            List<BookingSlot> ended = bookingRepository.findConfirmedSlotsEndedBefore(now, afterId, chunk);
+            if (ended.isEmpty()) {
+                break;
+            }
+            List<Long> ids = ended.stream().map(BookingSlot::getBookingId).toList();
+            Integer updated = transactionTemplate.execute(status ->
+                    bookingRepository.updateStatusByIds(ids, BookingStatus.CONFIRMED, BookingStatus.COMPLETED));
+            completed += updated != null ? updated : 0;
+            // Per-booking hooks work from the slots; the bookings no longer hold their rooms
+            for (BookingSlot slot : ended) {
+                bookingIntervalIndex.remove(slot);
+            }
+            afterId = ids.get(ids.size() - 1);
+            if (ended.size() < completionChunkSize) {
+                break;
+            }
         }
+        return completed;
     }
     /**
      * Get all bookings for a user
@@ -304,6 +478,37 @@ public class BookingService {
         return bookingRepository.findByUserAndStatus(user,BookingStatus.CONFIRMED);
     }
 
+    /**
+     * Get all confirmed bookings for a user as DTOs, without loading entities
+     * @param user User to get bookings for
+     * @return List of user's bookings
+     */
+    @Transactional(readOnly = true)
+    public List<BookingResponseDTO> getUserBookingDTOs(User user) {
+        return bookingRepository.findBookingDTOsByUserAndStatus(user, BookingStatus.CONFIRMED);
+    }
+
+    /**
+     * Get one keyset page of a user's confirmed bookings, latest start first
+     * @param user User to get bookings for
+     * @param cursor NextCursor of the previous page, or null for the first page
+     * @param size Page size
+     * @return The page of bookings
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    @Transactional(readOnly = true)
+    public Slice<BookingResponseDTO> getUserBookingsPage(User user, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable page = PageRequest.of(0, size);
+        if (after == null) {
+            return bookingRepository.findUserBookingPage(user, BookingStatus.CONFIRMED, page);
+        }
+        if (after.getTime() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return bookingRepository.findUserBookingPageAfter(user, BookingStatus.CONFIRMED, after.getTime(), after.getId(), page);
+    }
+
     /**
      * Get current bookings (happening now)
      * @return List of current bookings
@@ -321,4 +526,14 @@ public class BookingService {
     public List<Booking> getUpcomingBookingsForRoom(Room room) {
         return bookingRepository.findUpcomingBookingsForRoom(room, LocalDateTime.now());
     }
+
+    /**
+     * Get upcoming bookings for a room as DTOs, without loading entities
+     * @param roomId Room to get bookings for
+     * @return Upcoming confirmed bookings, earliest first
+     */
+    @Transactional(readOnly = true)
+    public List<BookingResponseDTO> getUpcomingBookingDTOsForRoom(Long roomId) {
+        return bookingRepository.findUpcomingBookingDTOsForRoom(roomId, LocalDateTime.now());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.smartroom.allocation.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timer wheel: LEVELS wheels of 64 buckets each, where a bucket of level n spans 64^n ticks.
+ * Scheduling and cancelling are O(1); a timer is moved down a level at most LEVELS - 1 times before it fires.
+ * With one-second ticks the wheels span about 194 days; later timers wait in an overflow list that is
+ * re-examined every time the top wheel completes a turn.
+ * Not tied to a clock: the owner calls advanceTo with the current time and fires what it returns.
+ *
+ * @param <T> Payload carried by each timer
+ */
+public class HierarchicalTimerWheel<T> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> buckets = new ArrayList<>();
+    private List<Timer<T>> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * A scheduled timer. Cancelling only marks it; it is dropped when its bucket is next visited.
+     */
+    public static final class Timer<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private volatile boolean cancelled;
+
+        private Timer(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public void cancel() { cancelled = true; }
+
+        public T getPayload() { return payload; }
+    }
+
+    /**
+     * @param tickMillis Resolution of the wheel
+     * @param nowMillis Current time, in epoch milliseconds
+     */
+    public HierarchicalTimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            buckets.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule a payload to fire at the first tick at or after the deadline.
+     * Deadlines that have already passed fire on the next tick.
+     * @param deadlineMillis When to fire, in epoch milliseconds
+     * @param payload What to hand back when the timer fires
+     * @return The timer, which can be cancelled
+     */
+    public synchronized Timer<T> schedule(long deadlineMillis, T payload) {
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timer<T> timer = new Timer<>(deadlineTick, payload);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (WHEEL_BITS * (level + 1))) {
+                int slot = (int) ((timer.deadlineTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+                buckets.get(level * WHEEL_SIZE + slot).add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    /**
+     * Move the wheel forward to the given time.
+     * @param nowMillis Current time, in epoch milliseconds
+     * @return Payloads of the timers that expired, in deadline order; cancelled timers are left out
+     */
+    public synchronized List<T> advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<>();
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            List<Timer<T>> due = buckets.set((int) (currentTick & WHEEL_MASK), new ArrayList<>());
+            for (Timer<T> timer : due) {
+                size--;
+                if (!timer.cancelled) {
+                    expired.add(timer.payload);
+                }
+            }
+        }
+        return expired;
+    }
+
+    // When a lower wheel completes a turn, spread the next bucket of the wheel above over the lower wheels
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) != 0) {
+                return;
+            }
+            int slot = (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+            List<Timer<T>> bucket = buckets.set(level * WHEEL_SIZE + slot, new ArrayList<>());
+            replace(bucket);
+        }
+        if ((currentTick & ((1L << (WHEEL_BITS * LEVELS)) - 1)) == 0) {
+            List<Timer<T>> waiting = overflow;
+            overflow = new ArrayList<>();
+            replace(waiting);
+        }
+    }
+
+    private void replace(List<Timer<T>> timers) {
+        for (Timer<T> timer : timers) {
+            if (timer.cancelled) {
+                size--;
+            } else {
+                place(timer);
+            }
+        }
+    }
+
+    /**
+     * Number of timers held, including cancelled ones that have not been dropped yet.
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
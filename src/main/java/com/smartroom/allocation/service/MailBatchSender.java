@@ -0,0 +1,90 @@
+package com.smartroom.allocation.service;
+
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Sends many emails over few SMTP connections.
+ * JavaMailSender opens one connection (and TLS session) per send call, however many messages the call
+ * carries, so messages are passed to it in chunks of notification.mail.batch-size instead of one by one.
+ * Chunks keep a single slow or failing connection from holding up the whole list.
+ */
+@Component
+public class MailBatchSender {
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${notification.mail.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * Send plain-text messages in chunks.
+     * They go out as MIME messages: JavaMailSender reports failures keyed by message, and two SimpleMailMessages
+     * with the same content are equal, so a failure could not otherwise be told apart from a success.
+     * @param messages Messages to send
+     * @return The messages that could not be sent, with the reason; empty if all were sent
+     */
+    public Map<SimpleMailMessage, Exception> send(List<SimpleMailMessage> messages) {
+        Map<SimpleMailMessage, Exception> failures = new IdentityHashMap<>();
+        Map<MimeMessage, SimpleMailMessage> originals = new IdentityHashMap<>();
+        List<MimeMessage> mimeMessages = new ArrayList<>(messages.size());
+        for (SimpleMailMessage message : messages) {
+            try {
+                MimeMessage mimeMessage = mailSender.createMimeMessage();
+                message.copyTo(new MimeMailMessage(mimeMessage));
+                originals.put(mimeMessage, message);
+                mimeMessages.add(mimeMessage);
+            } catch (MailException e) {
+                // An address that does not parse fails this message only
+                failures.put(message, e);
+            }
+        }
+        sendMime(mimeMessages).forEach((mimeMessage, cause) -> failures.put(originals.get(mimeMessage), cause));
+        return failures;
+    }
+
+    /**
+     * Send MIME messages in chunks.
+     * @param messages Messages to send
+     * @return The messages that could not be sent, with the reason; empty if all were sent
+     */
+    public Map<MimeMessage, Exception> sendMime(List<MimeMessage> messages) {
+        return sendInChunks(messages, chunk -> mailSender.send(chunk.toArray(new MimeMessage[0])));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Map<T, Exception> sendInChunks(List<T> messages, Consumer<List<T>> sendChunk) {
+        Map<T, Exception> failures = new IdentityHashMap<>();
+        for (int from = 0; from < messages.size(); from += batchSize) {
+            List<T> chunk = messages.subList(from, Math.min(from + batchSize, messages.size()));
+            try {
+                sendChunk.accept(chunk);
+            } catch (MailSendException e) {
+                // Keyed by the messages we passed in; empty when the failure was not tied to particular messages
+                if (e.getFailedMessages().isEmpty()) {
+                    chunk.forEach(message -> failures.put(message, e));
+                } else {
+                    e.getFailedMessages().forEach((message, cause) -> failures.put((T) message, cause));
+                }
+            } catch (MailException e) {
+                // Authentication or preparation failed before anything was sent
+                chunk.forEach(message -> failures.put(message, e));
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,171 @@
+package com.smartroom.allocation.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces room and equipment update notifications per recipient.
+ * The first update for a recipient opens a window of notification.digest.window; every update that arrives
+ * within it is added to the same digest, and the recipient gets one email when the window closes, so a round
+ * of admin changes sends one message per user instead of one per change. A digest that reaches max-items is
+ * sent at the next check without waiting for its window.
+ * A digest is only held in memory while its window is open. When it closes, the merged email is written to
+ * notification_outbox, and OutboxDispatcher sends it with the same retries and dead-lettering as booking
+ * emails. If the write fails, the digest is kept for the next check. Open digests are queued on shutdown,
+ * but are lost if the process dies.
+ */
+@Component
+public class NotificationDigest {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDigest.class);
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Value("${notification.digest.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.digest.window:PT2M}")
+    private Duration window;
+
+    @Value("${notification.digest.max-items:50}")
+    private int maxItems;
+
+    private final Map<String, Digest> pending = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flusher;
+
+    /** Updates buffered for one recipient; only touched inside ConcurrentHashMap.compute. */
+    private static final class Digest {
+        private final long openedAt = System.currentTimeMillis();
+        private final List<String> subjects = new ArrayList<>();
+        private final List<String> sections = new ArrayList<>();
+
+        boolean isDue(long now, long windowMillis, int maxItems) {
+            return now - openedAt >= windowMillis || sections.size() >= maxItems;
+        }
+
+        Digest append(Digest later) {
+            subjects.addAll(later.subjects);
+            sections.addAll(later.sections);
+            return this;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Check a few times per window, but at least every five seconds
+        long checkMillis = Math.max(100, Math.min(window.toMillis() / 4, 5000));
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> flush(false), checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+            flush(true);
+        }
+    }
+
+    /**
+     * @return true if updates should be added to digests rather than sent right away
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add an update to a recipient's digest.
+     * @param recipient Email address
+     * @param subject Subject the update would have had on its own
+     * @param section Text of the update, without greeting or signature
+     */
+    public void add(String recipient, String subject, String section) {
+        pending.compute(recipient, (email, digest) -> {
+            Digest current = digest != null ? digest : new Digest();
+            current.subjects.add(subject);
+            current.sections.add(section);
+            return current;
+        });
+    }
+
+    // Queue the digests whose window has closed or that are full, or every digest if all is set
+    void flush(boolean all) {
+        try {
+            long now = System.currentTimeMillis();
+            long windowMillis = window.toMillis();
+            int queued = 0;
+            for (String recipient : pending.keySet()) {
+                Digest[] due = new Digest[1];
+                pending.computeIfPresent(recipient, (email, digest) -> {
+                    if (all || digest.isDue(now, windowMillis, maxItems)) {
+                        due[0] = digest;
+                        return null;
+                    }
+                    return digest;
+                });
+                if (due[0] != null && queue(recipient, due[0])) {
+                    queued++;
+                }
+            }
+            if (queued > 0) {
+                logger.info("Queued {} notification digests", queued);
+            }
+        } catch (Exception e) {
+            logger.error("Notification digest flush failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean queue(String recipient, Digest digest) {
+        try {
+            notificationOutbox.enqueue("NOTIFICATION_DIGEST", toMessage(recipient, digest));
+            return true;
+        } catch (DataAccessException e) {
+            // Keep it, ahead of any updates added since, and try again at the next check
+            pending.merge(recipient, digest, (later, failed) -> failed.append(later));
+            logger.error("Failed to queue notification digest for {}, keeping it for the next check: {}",
+                    recipient, e.getMessage());
+            return false;
+        }
+    }
+
+    private static SimpleMailMessage toMessage(String recipient, Digest digest) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(recipient);
+        int count = digest.sections.size();
+        message.setSubject(count == 1 ? digest.subjects.get(0)
+                : "Smart Room Allocation System - " + count + " updates to rooms you have booked");
+        StringBuilder body = new StringBuilder("Dear User,\n\n");
+        if (count > 1) {
+            body.append("The following changes were made to rooms you have booked:\n\n");
+        }
+        body.append(String.join("\n\n----------------------------------------\n\n", digest.sections));
+        body.append("\n\nBest regards,\nSmart Room Allocation System");
+        message.setText(body.toString());
+        return message;
+    }
+}
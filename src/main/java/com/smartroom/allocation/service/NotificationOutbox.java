@@ -0,0 +1,217 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.entity.Booking;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Booking emails, written to the notification_outbox table instead of being sent directly.
+ * Each method inserts one row in the caller's transaction, so an email exists only if the booking change
+ * it describes commits. OutboxDispatcher sends the rows after commit and retries failed sends.
+ * Notification digests and room updates that could not be sent directly are queued here too.
+ */
+@Service
+public class NotificationOutbox {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutbox.class);
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private static final String INSERT =
+            "INSERT INTO notification_outbox (kind, recipient, subject, body) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OutboxDispatcher outboxDispatcher;
+
+    /**
+     * Queue the confirmation email of a single booking.
+     * @param booking Confirmed booking
+     */
+    public void bookingConfirmed(Booking booking) {
+        //Ensure room and user objects are not null before accessing their properties
+        String roomNumber = booking.getRoom() != null ? booking.getRoom().getRoomNumber() : "N/A";
+        String roomName = booking.getRoom() != null ? booking.getRoom().getName() : "N/A";
+        String userName = booking.getUser() != null ? booking.getUser().getFullName() : "User";
+        enqueue("BOOKING_CONFIRMED", booking.getUser(), "Room Booking Confirmation - " + roomNumber, String.format(
+                """
+                        Dear %s,
+                        
+                        Your room booking has been confirmed:
+                        
+                        Room: %s (%s)
+                        Date & Time: %s to %s
+                        Purpose: %s
+                        
+                        Please arrive on time. If you need to cancel, please do so at least 30 minutes before the start time.
+                        
+                        Best regards,
+                        Smart Room Allocation System""",
+                userName,
+                roomNumber,
+                roomName,
+                booking.getStartTime().toString(),
+                booking.getEndTime().toString(),
+                booking.getPurpose()
+        ));
+    }
+
+    /**
+     * Queue the email for a booking update
+     * @param oldBooking The original booking details
+     * @param newBooking The updated booking details
+     */
+    public void bookingUpdated(Booking oldBooking, Booking newBooking) {
+        enqueue("BOOKING_UPDATED", newBooking.getUser(), "Booking Updated: " + newBooking.getRoom().getName(), String.format(
+                """
+                        Dear %s,
+                        
+                        Your booking details for room %s have been updated.
+                        
+                        Original Details:
+                           Room:   %s
+                           Start Time: %s
+                           End Time:   %s
+                           Purpose:    %s
+                        New Details:
+                           Room:   %s
+                           Start Time: %s
+                           End Time:   %s
+                           Purpose:    %s
+                        Please arrive on time. If you need to cancel, please do so at least 30 minutes before the start time.
+                        
+                        Best regards,
+                        Smart Room Allocation System""",
+                newBooking.getUser().getFullName(),
+                oldBooking.getRoom().getRoomNumber(),
+                oldBooking.getRoom().getName(),
+                oldBooking.getStartTime().format(FORMATTER),
+                oldBooking.getEndTime().format(FORMATTER),
+                oldBooking.getPurpose(),
+                newBooking.getRoom().getName(),
+                newBooking.getStartTime().format(FORMATTER),
+                newBooking.getEndTime().format(FORMATTER),
+                newBooking.getPurpose()));
+    }
+
+    /**
+     * Queue a single summary email for a series of recurring bookings.
+     * @param bookings The list of confirmed recurring bookings.
+     */
+    public void recurringSeriesConfirmed(List<Booking> bookings) {
+        if (bookings == null || bookings.isEmpty()) {
+            return; // Do nothing if there are no bookings
+        }
+
+        // Get common details from the first booking in the series
+        Booking firstBooking = bookings.get(0);
+        User user = firstBooking.getUser();
+        Room room = firstBooking.getRoom();
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("h:mm a");
+
+        // Build the list of dates
+        StringBuilder datesList = new StringBuilder();
+        for (Booking booking : bookings) {
+            datesList.append("- ").append(booking.getStartTime().format(dateFormatter)).append("\n");
+        }
+
+        enqueue("RECURRING_CONFIRMED", user, String.format("Recurring Booking Summary for Room %s", room.getRoomNumber()), String.format(
+                """
+                        Dear %s,
+                        
+                        Your recurring room booking has been confirmed. Details are as follows:
+                        
+                        Room: %s (%s)
+                        Time: %s to %s
+                        Purpose: %s
+                        
+                        This booking will recur on the following dates:
+                        %s
+                        Please note that each of these is a separate booking. If you need to cancel a single day, you can do so from your bookings list without affecting the rest of the series.
+                        
+                        Best regards,
+                        Smart Room Allocation System""",
+                user.getFullName(),
+                room.getRoomNumber(),
+                room.getName(),
+                firstBooking.getStartTime().format(timeFormatter),
+                firstBooking.getEndTime().format(timeFormatter),
+                firstBooking.getPurpose(),
+                datesList.toString()
+        ));
+    }
+
+    /**
+     * Queue the cancellation email of a booking
+     * @param booking Cancelled booking
+     */
+    public void bookingCancelled(Booking booking) {
+        enqueue("BOOKING_CANCELLED", booking.getUser(), "Room Booking Cancelled - " + booking.getRoom().getRoomNumber(), String.format(
+                """
+                        Dear %s,
+                        
+                        Your room booking has been cancelled:
+                        
+                        Room: %s (%s)
+                        Date & Time: %s to %s
+                        Purpose: %s
+                        
+                        The room is now available for other bookings.
+                        
+                        Best regards,
+                        Smart Room Allocation System""",
+                booking.getUser().getFullName(),
+                booking.getRoom().getRoomNumber(),
+                booking.getRoom().getName(),
+                booking.getStartTime().toString(),
+                booking.getEndTime().toString(),
+                booking.getPurpose()
+        ));
+    }
+
+    /**
+     * Queue an email composed elsewhere, such as a notification digest or a room update whose direct send failed.
+     * @param kind What the email is, for logs
+     * @param message Plain-text email to a single recipient
+     */
+    public void enqueue(String kind, SimpleMailMessage message) {
+        String[] to = message.getTo();
+        enqueue(kind, to != null && to.length > 0 ? to[0] : null, message.getSubject(), message.getText());
+    }
+
+    private void enqueue(String kind, User recipient, String subject, String body) {
+        enqueue(kind, recipient != null ? recipient.getEmail() : null, subject, body);
+    }
+
+    private void enqueue(String kind, String email, String subject, String body) {
+        if (email == null) {
+            logger.warn("Not queueing {} email: no recipient address", kind);
+            return;
+        }
+        jdbcTemplate.update(INSERT, kind, email, subject, body);
+        // The row is only visible to the dispatcher once committed; wake it then rather than waiting for its next poll
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            outboxDispatcher.wakeUp();
+        }
+    }
+}
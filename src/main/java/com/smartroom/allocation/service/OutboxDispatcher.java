@@ -0,0 +1,210 @@
+package com.smartroom.allocation.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the emails queued in notification_outbox.
+ * A single background thread drains due rows in batches, woken by NotificationOutbox after each commit and
+ * otherwise every poll interval. Each batch is claimed with FOR UPDATE SKIP LOCKED, so several instances can
+ * drain the table at once without sending a row twice. A sent row is deleted; a failed one is retried after
+ * an exponentially growing delay and marked DEAD after max-attempts failures.
+ * Delivery is at least once: an email whose batch fails to commit after sending is sent again.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private static final String SELECT_DUE = """
+            SELECT id, kind, recipient, subject, body, attempts FROM notification_outbox
+            WHERE status = 'PENDING' AND next_attempt_at <= now()
+            ORDER BY next_attempt_at LIMIT ?
+            FOR UPDATE SKIP LOCKED""";
+
+    private static final String DELETE_SENT = "DELETE FROM notification_outbox WHERE id = ?";
+
+    private static final String RETRY_LATER = """
+            UPDATE notification_outbox SET attempts = attempts + 1, last_error = ?,
+                next_attempt_at = now() + ? * interval '1 millisecond'
+            WHERE id = ?""";
+
+    private static final String MARK_DEAD = """
+            UPDATE notification_outbox SET attempts = attempts + 1, last_error = ?, status = 'DEAD'
+            WHERE id = ?""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MailBatchSender mailBatchSender;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notification.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.outbox.poll-interval:PT10S}")
+    private Duration pollInterval;
+
+    @Value("${notification.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.initial-backoff:PT30S}")
+    private Duration initialBackoff;
+
+    @Value("${notification.outbox.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter deadCounter;
+
+    private final Semaphore wakeUps = new Semaphore(0);
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    private record OutboxMessage(long id, String kind, String recipient, String subject, String body, int attempts) { }
+
+    public OutboxDispatcher(MeterRegistry meterRegistry) {
+        this.sentCounter = Counter.builder("notifications.outbox.sent")
+                .description("Outbox emails sent")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("notifications.outbox.retried")
+                .description("Outbox sends that failed and were scheduled for another attempt")
+                .register(meterRegistry);
+        this.deadCounter = Counter.builder("notifications.outbox.dead")
+                .description("Outbox emails given up on after max-attempts failures")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "notification-outbox");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Ask the dispatcher to look for due rows now. Never blocks.
+     */
+    public void wakeUp() {
+        wakeUps.release();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                drain();
+                wakeUps.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeUps.drainPermits();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Notification outbox dispatch failed: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Send due batches until a batch comes back short; failed rows move into the future, so this ends
+    private void drain() {
+        while (running) {
+            Integer claimed = transactionTemplate.execute(status -> dispatchBatch());
+            if (claimed == null || claimed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Claim, send and settle one batch in the caller's transaction; returns the number of rows claimed
+    int dispatchBatch() {
+        List<OutboxMessage> due = jdbcTemplate.query(SELECT_DUE, (rs, rowNum) -> new OutboxMessage(
+                rs.getLong("id"), rs.getString("kind"), rs.getString("recipient"),
+                rs.getString("subject"), rs.getString("body"), rs.getInt("attempts")), batchSize);
+        if (due.isEmpty()) {
+            return 0;
+        }
+        List<SimpleMailMessage> mails = new ArrayList<>(due.size());
+        for (OutboxMessage message : due) {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setTo(message.recipient());
+            mail.setSubject(message.subject());
+            mail.setText(message.body());
+            mails.add(mail);
+        }
+        Map<SimpleMailMessage, Exception> failures = mailBatchSender.send(mails);
+
+        List<Object[]> sentIds = new ArrayList<>();
+        for (int i = 0; i < due.size(); i++) {
+            Exception failure = failures.get(mails.get(i));
+            if (failure == null) {
+                sentIds.add(new Object[] {due.get(i).id()});
+            } else {
+                failed(due.get(i), failure);
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_SENT, sentIds);
+        sentCounter.increment(sentIds.size());
+        return due.size();
+    }
+
+    private void failed(OutboxMessage message, Exception e) {
+        String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        int attempts = message.attempts() + 1;
+        if (attempts >= maxAttempts) {
+            jdbcTemplate.update(MARK_DEAD, error, message.id());
+            deadCounter.increment();
+            logger.error("Giving up on {} email {} to {} after {} attempts: {}",
+                    message.kind(), message.id(), message.recipient(), attempts, error);
+            return;
+        }
+        long backoff = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(message.attempts(), 30));
+        jdbcTemplate.update(RETRY_LATER, error, backoff, message.id());
+        retriedCounter.increment();
+        logger.warn("Failed to send {} email {} to {} (attempt {}), retrying in {} ms: {}",
+                message.kind(), message.id(), message.recipient(), attempts, backoff, error);
+    }
+}
@@ -0,0 +1,379 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.AllocationRequest;
+import com.smartroom.allocation.dto.AllocationResult;
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.dto.RoomProfile;
+import com.smartroom.allocation.entity.EquipmentType;
+import com.smartroom.allocation.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Assigns rooms to a batch of booking requests that only describe what they need
+ * (time slot, capacity, equipment, preferred building).
+ *
+ * The solver is a greedy heuristic: requests with the fewest suitable rooms are placed first, each in the
+ * free room that best matches its preferred building and wastes the least capacity. A repair pass then tries
+ * to place the requests that are still unassigned by moving one blocking request to another room.
+ * Every phase stops at the time budget; requests not reached by then are returned as unassigned.
+ * The result is a proposal only; nothing is booked.
+ */
+@Service
+public class RoomAllocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAllocationService.class);
+
+    private static final String TIMED_OUT_REASON = "The time budget ran out before this request was placed";
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Value("${allocation.time-budget-ms:2000}")
+    private long timeBudgetMs;
+
+    @Value("${allocation.max-requests:10000}")
+    private int maxRequests;
+
+    // Best-ranked rooms kept per request; the full list is recomputed only if all of them are taken
+    @Value("${allocation.candidates-per-request:100}")
+    private int candidatesPerRequest;
+
+    /**
+     * Confirmed bookings overlapping the batch, sorted by start time, indexed against the ranked room list.
+     */
+    private static final class ExistingBookings {
+        private final List<BookingSlot> slots;
+        private final Map<Long, Integer> positions = new HashMap<>();
+        // Longest booking; bounds how far back a booking overlapping a window can start
+        private final Duration longest;
+
+        private ExistingBookings(List<BookingSlot> slots, List<RoomProfile> rooms) {
+            this.slots = slots.stream().sorted(Comparator.comparing(BookingSlot::getStartTime)).toList();
+            for (int i = 0; i < rooms.size(); i++) {
+                positions.put(rooms.get(i).getRoomId(), i);
+            }
+            this.longest = slots.stream()
+                    .map(slot -> Duration.between(slot.getStartTime(), slot.getEndTime()))
+                    .max(Comparator.naturalOrder())
+                    .orElse(Duration.ZERO);
+        }
+
+        // Positions in the room list of the rooms holding a booking that overlaps [start, end)
+        private BitSet busyDuring(LocalDateTime start, LocalDateTime end) {
+            BitSet busy = new BitSet();
+            LocalDateTime from = start.minus(longest);
+            int low = 0;
+            int high = slots.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (slots.get(middle).getStartTime().isBefore(from)) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            for (int i = low; i < slots.size() && slots.get(i).getStartTime().isBefore(end); i++) {
+                BookingSlot slot = slots.get(i);
+                Integer position = positions.get(slot.getRoomId());
+                if (position != null && slot.getEndTime().isAfter(start)) {
+                    busy.set(position);
+                }
+            }
+            return busy;
+        }
+    }
+
+    /** Working state of one request during a solve. */
+    private static final class RequestState {
+        private final int index;
+        private final AllocationRequest request;
+        private final int requiredCapacity;
+        // Copied into an EnumSet so that room checks are a bit mask comparison
+        private final Set<EquipmentType> requiredEquipment;
+        private List<RoomProfile> candidates = List.of();
+        private int candidateCount;
+        // Set once the greedy pass has tried the request; left false if the time budget ran out first
+        private boolean attempted;
+        private RoomProfile assigned;
+
+        private RequestState(int index, AllocationRequest request) {
+            this.index = index;
+            this.request = request;
+            this.requiredCapacity = request.getCapacity() != null ? request.getCapacity() : 1;
+            this.requiredEquipment = request.getRequiredEquipment() == null || request.getRequiredEquipment().isEmpty()
+                    ? null : EnumSet.copyOf(request.getRequiredEquipment());
+        }
+
+        private LocalDateTime start() { return request.getStartTime(); }
+
+        private LocalDateTime end() { return request.getEndTime(); }
+    }
+
+    /**
+     * Propose a room for every request in the batch.
+     * @param requests The requests to place
+     * @return Proposed assignments, requests that could not be placed and solve statistics
+     * @throws IllegalArgumentException if the batch is empty or too large
+     */
+    public AllocationResult allocate(List<AllocationRequest> requests) {
+        long started = System.currentTimeMillis();
+        long deadline = started + timeBudgetMs;
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one allocation request is required");
+        }
+        if (requests.size() > maxRequests) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxRequests + " requests");
+        }
+
+        AllocationResult result = new AllocationResult();
+        List<RequestState> states = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            AllocationRequest request = requests.get(i);
+            String invalid = validate(request);
+            if (invalid != null) {
+                result.getUnassigned().add(new AllocationResult.Unassigned(request.getRequestId(), invalid));
+            } else {
+                states.add(new RequestState(i, request));
+            }
+        }
+        if (states.isEmpty()) {
+            result.setElapsedMs(System.currentTimeMillis() - started);
+            return result;
+        }
+
+        // Sorted once by capacity, so ranking a request's rooms is a single pass with no per-request sort
+        List<RoomProfile> rooms = roomService.getBookableRoomProfiles().stream()
+                .sorted(Comparator.comparingInt(this::capacityOf).thenComparing(RoomProfile::getRoomId))
+                .toList();
+        ExistingBookings booked = loadExistingBookings(states, rooms);
+
+        // Candidate filtering is independent per request, so it runs in parallel over the read-only inputs.
+        // Requests not ranked before the deadline keep a count of 0 and are never attempted.
+        states.parallelStream().forEach(state -> {
+            if (System.currentTimeMillis() < deadline) {
+                state.candidates = rankCandidates(state, rooms, booked, candidatesPerRequest);
+            }
+        });
+
+        // Most constrained first; longer requests first among equally constrained ones
+        List<RequestState> order = new ArrayList<>(states);
+        order.sort(Comparator.comparingInt((RequestState state) -> state.candidateCount)
+                .thenComparing(state -> Duration.between(state.start(), state.end()), Comparator.reverseOrder())
+                .thenComparingInt(state -> state.index));
+
+        Map<Long, NavigableMap<LocalDateTime, RequestState>> assigned = new HashMap<>();
+        boolean timedOut = false;
+        for (RequestState state : order) {
+            if (System.currentTimeMillis() >= deadline) {
+                timedOut = true;
+                break;
+            }
+            state.attempted = true;
+            placeGreedily(state, rooms, booked, assigned);
+        }
+        if (!timedOut) {
+            timedOut = repair(order, assigned, deadline);
+        }
+
+        states.sort(Comparator.comparingInt(state -> state.index));
+        long wasted = 0;
+        for (RequestState state : states) {
+            if (state.assigned != null) {
+                int waste = capacityOf(state.assigned) - state.requiredCapacity;
+                wasted += waste;
+                result.getAssignments().add(new AllocationResult.Assignment(state.request.getRequestId(), state.assigned, waste));
+            } else {
+                String reason;
+                if (!state.attempted) {
+                    reason = TIMED_OUT_REASON;
+                } else if (state.candidateCount == 0) {
+                    reason = "No room with the required capacity and equipment is free at that time";
+                } else {
+                    reason = "Every suitable room was given to another request in the batch";
+                }
+                result.getUnassigned().add(new AllocationResult.Unassigned(state.request.getRequestId(), reason));
+            }
+        }
+        result.setTotalWastedCapacity(wasted);
+        result.setTimedOut(timedOut);
+        result.setElapsedMs(System.currentTimeMillis() - started);
+        logger.info("Allocated {} of {} requests across {} rooms in {} ms (timed out: {})",
+                result.getAssignments().size(), requests.size(), rooms.size(), result.getElapsedMs(), timedOut);
+        return result;
+    }
+
+    private String validate(AllocationRequest request) {
+        if (request.getStartTime() == null || request.getEndTime() == null) {
+            return "Start time and end time are required";
+        }
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            return "End time must be after start time";
+        }
+        if (request.getStartTime().isBefore(LocalDateTime.now())) {
+            return "Cannot allocate rooms in the past";
+        }
+        if (request.getCapacity() != null && request.getCapacity() < 1) {
+            return "Capacity must be at least 1";
+        }
+        return null;
+    }
+
+    /**
+     * Load the confirmed bookings overlapping the batch.
+     */
+    private ExistingBookings loadExistingBookings(List<RequestState> states, List<RoomProfile> rooms) {
+        LocalDateTime from = states.stream().map(RequestState::start).min(LocalDateTime::compareTo).get();
+        LocalDateTime to = states.stream().map(RequestState::end).max(LocalDateTime::compareTo).get();
+        return new ExistingBookings(bookingRepository.findConfirmedSlotsBetween(from, to), rooms);
+    }
+
+    /**
+     * Rank the rooms that fit a request and are free at its time: preferred building first, then the least
+     * wasted capacity. Sets the request's candidate count to the number of such rooms.
+     * @param rooms Bookable rooms, sorted by capacity
+     * @param limit Most rooms to return
+     * @return The best-ranked rooms, at most limit of them
+     */
+    private List<RoomProfile> rankCandidates(RequestState state, List<RoomProfile> rooms, ExistingBookings booked, int limit) {
+        String building = state.request.getPreferredBuilding();
+        List<RoomProfile> preferred = new ArrayList<>();
+        List<RoomProfile> others = new ArrayList<>();
+        int count = 0;
+        BitSet busy = booked.busyDuring(state.start(), state.end());
+        // Every room before the first one large enough is too small, so the scan starts there
+        for (int i = firstWithCapacity(rooms, state.requiredCapacity); i < rooms.size(); i++) {
+            RoomProfile room = rooms.get(i);
+            if (busy.get(i) || !room.satisfies(state.requiredCapacity, state.requiredEquipment)) {
+                continue;
+            }
+            count++;
+            List<RoomProfile> group = building != null && building.equalsIgnoreCase(room.getBuilding()) ? preferred : others;
+            if (group.size() < limit) {
+                group.add(room);
+            }
+        }
+        state.candidateCount = count;
+        if (preferred.size() < limit) {
+            preferred.addAll(others.subList(0, Math.min(others.size(), limit - preferred.size())));
+        }
+        return preferred;
+    }
+
+    // Binary search for the first room of a capacity-sorted list that seats at least the given number
+    private int firstWithCapacity(List<RoomProfile> rooms, int capacity) {
+        int low = 0;
+        int high = rooms.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (capacityOf(rooms.get(middle)) < capacity) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void placeGreedily(RequestState state, List<RoomProfile> rooms,
+                               ExistingBookings booked,
+                               Map<Long, NavigableMap<LocalDateTime, RequestState>> assigned) {
+        if (state.candidateCount == 0) {
+            return;
+        }
+        if (tryPlace(state, state.candidates, assigned, null)) {
+            return;
+        }
+        if (state.candidateCount > state.candidates.size()) {
+            // Every top-ranked room is taken: fall back to the full list for this request only
+            state.candidates = rankCandidates(state, rooms, booked, Integer.MAX_VALUE);
+            tryPlace(state, state.candidates, assigned, null);
+        }
+    }
+
+    private boolean tryPlace(RequestState state, List<RoomProfile> candidates,
+                             Map<Long, NavigableMap<LocalDateTime, RequestState>> assigned, RoomProfile excluded) {
+        for (RoomProfile room : candidates) {
+            if (room == excluded) {
+                continue;
+            }
+            NavigableMap<LocalDateTime, RequestState> roomAssignments = assigned.computeIfAbsent(room.getRoomId(), id -> new TreeMap<>());
+            if (blockers(roomAssignments, state.start(), state.end()).isEmpty()) {
+                roomAssignments.put(state.start(), state);
+                state.assigned = room;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Try to place each unassigned request by moving the single request blocking one of its rooms elsewhere.
+     * @return true if the time budget ran out before every unassigned request was tried
+     */
+    private boolean repair(List<RequestState> order, Map<Long, NavigableMap<LocalDateTime, RequestState>> assigned, long deadline) {
+        for (RequestState state : order) {
+            if (state.assigned != null || state.candidates.isEmpty()) {
+                continue;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return true;
+            }
+            for (RoomProfile room : state.candidates) {
+                NavigableMap<LocalDateTime, RequestState> roomAssignments = assigned.get(room.getRoomId());
+                List<RequestState> blocking = blockers(roomAssignments, state.start(), state.end());
+                if (blocking.size() != 1) {
+                    continue;
+                }
+                RequestState blocker = blocking.get(0);
+                roomAssignments.remove(blocker.start());
+                if (tryPlace(blocker, blocker.candidates, assigned, room)) {
+                    roomAssignments.put(state.start(), state);
+                    state.assigned = room;
+                    break;
+                }
+                roomAssignments.put(blocker.start(), blocker);
+            }
+        }
+        return false;
+    }
+
+    // Assignments in a room overlapping [start, end); the map holds non-overlapping intervals keyed by start
+    private List<RequestState> blockers(NavigableMap<LocalDateTime, RequestState> roomAssignments,
+                                        LocalDateTime start, LocalDateTime end) {
+        List<RequestState> blocking = new ArrayList<>();
+        if (roomAssignments == null) {
+            return blocking;
+        }
+        for (RequestState other : roomAssignments.headMap(end, false).descendingMap().values()) {
+            if (!other.end().isAfter(start)) {
+                break;
+            }
+            blocking.add(other);
+        }
+        return blocking;
+    }
+
+    private int capacityOf(RoomProfile room) {
+        return room.getCapacity() != null ? room.getCapacity() : 0;
+    }
+}
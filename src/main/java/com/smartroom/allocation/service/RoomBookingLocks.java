@@ -0,0 +1,47 @@
+package com.smartroom.allocation.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped in-JVM locks keyed by room ID.
+ * Serializes concurrent bookings of the same room on this instance so they queue here instead of
+ * racing each other into the database; the bookings exclusion constraint still guards against other instances.
+ */
+@Component
+public class RoomBookingLocks {
+
+    private final ReentrantLock[] stripes;
+
+    public RoomBookingLocks(@Value("${booking.room-lock-stripes:64}") int stripeCount) {
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Lock a room for the rest of the current transaction.
+     * The lock is released after the transaction commits or rolls back, so the next booking
+     * for the same room only starts once this one is visible to conflict checks.
+     * @param roomId Room to lock
+     * @throws IllegalStateException if no transaction is active
+     */
+    public void lockUntilTransactionEnds(Long roomId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Room booking locks can only be taken inside a transaction");
+        }
+        ReentrantLock lock = stripes[Math.floorMod(roomId.hashCode(), stripes.length)];
+        lock.lock();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
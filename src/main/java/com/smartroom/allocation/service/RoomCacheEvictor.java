@@ -0,0 +1,95 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.entity.Room;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Evicts rooms and their equipment lists from the second-level cache.
+ * Hibernate keeps cached entities in step with changes made through the session, but not Room.equipment:
+ * that list is the inverse side of Equipment.room, so moving, adding or deleting equipment leaves it stale.
+ * Eviction is deferred until the surrounding transaction commits, so a concurrent reader cannot cache
+ * the old state again in between.
+ */
+@Component
+public class RoomCacheEvictor {
+
+    private static final String ROOM_EQUIPMENT_ROLE = Room.class.getName() + ".equipment";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Evict a room and its equipment list.
+     * @param roomId Room ID
+     */
+    public void evictRoom(Long roomId) {
+        if (roomId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            cache.evictEntityData(Room.class, roomId);
+            cache.evictCollectionData(ROOM_EQUIPMENT_ROLE, roomId);
+        });
+    }
+
+    /**
+     * Evict the equipment lists of the rooms a piece of equipment was moved between.
+     * @param rooms Rooms whose equipment changed; nulls are ignored
+     */
+    public void evictEquipmentOf(Room... rooms) {
+        Long[] roomIds = Arrays.stream(rooms).filter(Objects::nonNull).map(Room::getId)
+                .filter(Objects::nonNull).distinct().toArray(Long[]::new);
+        if (roomIds.length == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            for (Long roomId : roomIds) {
+                cache.evictCollectionData(ROOM_EQUIPMENT_ROLE, roomId);
+            }
+        });
+    }
+
+    /**
+     * Evict rooms whose status was written outside the session, and the cached queries that may list them.
+     * @param roomIds Rooms that changed; nothing is evicted if empty
+     */
+    public void evictRoomStatuses(Collection<Long> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        List<Long> evicted = List.copyOf(roomIds);
+        afterCommit(() -> {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            for (Long roomId : evicted) {
+                cache.evictEntityData(Room.class, roomId);
+            }
+            cache.evictDefaultQueryRegion();
+        });
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
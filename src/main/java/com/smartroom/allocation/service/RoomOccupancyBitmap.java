@@ -0,0 +1,328 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Per-room occupancy bitmaps over a rolling horizon of HORIZON_DAYS days starting today.
+ * Each day is 96 fifteen-minute slots held in two longs, so one room costs under 6 KB for a whole year.
+ * A slot's bit is set when any confirmed booking touches it; "busy" answers for windows or bookings
+ * that are not slot-aligned are confirmed against BookingIntervalIndex.
+ * Kept in sync through BookingChangedEvent and rebuilt every night as the horizon moves forward.
+ * Bookings written by other instances only show up after the next rebuild, so a clear bit means
+ * "maybe free": findFreeRooms confirms those rooms against the database before returning them.
+ */
+@Component
+public class RoomOccupancyBitmap {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomOccupancyBitmap.class);
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    // Days start on a word boundary, so the last word of each day is only partly used
+    private static final int WORDS_PER_DAY = (SLOTS_PER_DAY + Long.SIZE - 1) / Long.SIZE;
+    public static final int HORIZON_DAYS = 366;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Value("${booking.occupancy-bitmap.enabled:true}")
+    private boolean enabled;
+
+    // Bitmaps and the first day they cover, swapped as a whole on rebuild; null until the first build
+    private volatile Snapshot snapshot;
+
+    // Non-null while a rebuild is running: changes are recorded here and replayed onto the new bitmaps.
+    private volatile Queue<BookingChangedEvent> rebuildLog;
+
+    /**
+     * Bitmaps of every room with a booking in the horizon, together with the day slot 0 belongs to.
+     * Published with a single reference write so readers never pair new bitmaps with an old horizon.
+     */
+    private record Snapshot(LocalDate horizonStart, Map<Long, long[]> bitmaps) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Move the horizon forward every night and pick up bookings written by other instances.
+     */
+    @Scheduled(cron = "${booking.occupancy-bitmap.rebuild-cron:0 5 0 * * ?}")
+    public void nightlyRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    private synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Queue<BookingChangedEvent> log = new ConcurrentLinkedQueue<>();
+        rebuildLog = log;
+        try {
+            LocalDate start = LocalDate.now();
+            List<BookingSlot> slots = bookingRepository.findConfirmedSlotsBetween(
+                    start.atStartOfDay(), start.plusDays(HORIZON_DAYS).atStartOfDay());
+
+            Map<Long, long[]> rebuilt = new ConcurrentHashMap<>();
+            for (BookingSlot slot : slots) {
+                long[] words = rebuilt.computeIfAbsent(slot.getRoomId(), id -> new long[HORIZON_DAYS * WORDS_PER_DAY]);
+                setRange(words, start, slot.getStartTime(), slot.getEndTime(), true);
+            }
+            snapshot = new Snapshot(start, rebuilt);
+            rebuildLog = null;
+            for (BookingChangedEvent event : log) {
+                apply(event);
+            }
+            logger.info("Occupancy bitmaps built for {} rooms from {} bookings in {} ms",
+                    rebuilt.size(), slots.size(), System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            rebuildLog = null;
+            logger.error("Failed to build occupancy bitmaps: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Keep the bitmaps in sync with committed booking changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!enabled || snapshot == null) {
+            return;
+        }
+        Queue<BookingChangedEvent> log = rebuildLog;
+        if (log != null) {
+            log.add(event);
+        }
+        apply(event);
+    }
+
+    private void apply(BookingChangedEvent event) {
+        Snapshot current = snapshot;
+        LocalDate start = current.horizonStart();
+        BookingSlot previous = event.getPrevious();
+        if (previous != null) {
+            long[] words = current.bitmaps().get(previous.getRoomId());
+            if (words != null) {
+                synchronized (words) {
+                    recomputeDays(words, start, previous);
+                }
+            }
+        }
+        BookingSlot booked = event.getCurrent();
+        if (booked != null) {
+            long[] words = current.bitmaps().computeIfAbsent(booked.getRoomId(), id -> new long[HORIZON_DAYS * WORDS_PER_DAY]);
+            synchronized (words) {
+                setRange(words, start, booked.getStartTime(), booked.getEndTime(), true);
+            }
+        }
+    }
+
+    /**
+     * Clear the days a removed booking touched and re-mark the bookings still holding the room on them.
+     * Other bookings may share a partially used slot with the removed one, so its bits cannot simply be cleared.
+     * Uses the interval index, which holds every confirmed booking that has not ended yet.
+     */
+    private void recomputeDays(long[] words, LocalDate start, BookingSlot removed) {
+        LocalDateTime dayStart = removed.getStartTime().toLocalDate().atStartOfDay();
+        LocalDateTime dayEnd = removed.getEndTime().toLocalDate().plusDays(1).atStartOfDay();
+        setRange(words, start, dayStart, dayEnd, false);
+        for (BookingSlot remaining : bookingIntervalIndex.findConflictingSlots(removed.getRoomId(), dayStart, dayEnd, removed.getBookingId())) {
+            setRange(words, start, remaining.getStartTime(), remaining.getEndTime(), true);
+        }
+    }
+
+    // Set or clear every slot touched by [from, to), clipped to the horizon
+    private static void setRange(long[] words, LocalDate start, LocalDateTime from, LocalDateTime to, boolean busy) {
+        long first = Math.max(slotIndex(start, from), 0);
+        // A booking ending mid-slot still touches that slot
+        long last = Math.min(slotIndex(start, to.minusNanos(1)), (long) HORIZON_DAYS * SLOTS_PER_DAY - 1);
+        for (long slot = first; slot <= last; slot++) {
+            int word = wordIndex(slot);
+            long bit = 1L << (slot % SLOTS_PER_DAY % Long.SIZE);
+            if (busy) {
+                words[word] |= bit;
+            } else {
+                words[word] &= ~bit;
+            }
+        }
+    }
+
+    private static long slotIndex(LocalDate start, LocalDateTime time) {
+        long minutes = ChronoUnit.MINUTES.between(start.atStartOfDay(), time);
+        return Math.floorDiv(minutes, SLOT_MINUTES);
+    }
+
+    // Word holding a horizon slot: the day's first word plus the slot's word within the day
+    private static int wordIndex(long slot) {
+        return (int) (slot / SLOTS_PER_DAY) * WORDS_PER_DAY + (int) (slot % SLOTS_PER_DAY) / Long.SIZE;
+    }
+
+    /**
+     * Check whether the bitmaps can answer queries about a window.
+     * @return true if the bitmaps are built and the window lies inside the horizon
+     */
+    public boolean covers(LocalDateTime startTime, LocalDateTime endTime) {
+        Snapshot current = snapshot;
+        return enabled && current != null && !startTime.isBefore(current.horizonStart().atStartOfDay())
+                && !endTime.isAfter(current.horizonStart().plusDays(HORIZON_DAYS).atStartOfDay());
+    }
+
+    /**
+     * Check whether this instance knows of no confirmed booking of a room overlapping [startTime, endTime).
+     * A false answer rules the room out; a true answer may still miss bookings made on another instance
+     * since the last rebuild. Only valid when covers(startTime, endTime) is true.
+     * @param roomId Room to check
+     * @param startTime Start of the window
+     * @param endTime End of the window
+     * @return true if the room may be free for the whole window
+     */
+    public boolean mayBeFree(Long roomId, LocalDateTime startTime, LocalDateTime endTime) {
+        Snapshot current = snapshot;
+        long[] words = current.bitmaps().get(roomId);
+        if (words == null || !anyBitSet(words, current.horizonStart(), startTime, endTime)) {
+            return true;
+        }
+        // A set bit may come from a booking that only shares a slot with the window
+        return bookingIntervalIndex.covers(startTime)
+                && bookingIntervalIndex.findConflicts(roomId, startTime, endTime, null).isEmpty();
+    }
+
+    /**
+     * Filter a set of rooms down to those free for the whole window.
+     * The bitmaps rule out busy rooms; the rooms left are confirmed with a single query, so bookings made
+     * on other instances since the last rebuild are never missed.
+     * Only valid when covers(startTime, endTime) is true.
+     * @param roomIds Rooms to check
+     * @param startTime Start of the window
+     * @param endTime End of the window
+     * @return The free rooms, in the order given
+     */
+    public List<Long> findFreeRooms(Collection<Long> roomIds, LocalDateTime startTime, LocalDateTime endTime) {
+        List<Long> candidates = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            if (mayBeFree(roomId, startTime, endTime)) {
+                candidates.add(roomId);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<Long> booked = new HashSet<>(bookingRepository.findBookedRoomIds(candidates, startTime, endTime));
+        candidates.removeIf(booked::contains);
+        return candidates;
+    }
+
+    private static boolean anyBitSet(long[] words, LocalDate start, LocalDateTime from, LocalDateTime to) {
+        long first = slotIndex(start, from);
+        long last = slotIndex(start, to.minusNanos(1));
+        synchronized (words) {
+            for (long slot = first; slot <= last; ) {
+                int slotOfDay = (int) (slot % SLOTS_PER_DAY);
+                int fromBit = slotOfDay % Long.SIZE;
+                // Stop at the end of the word, the end of the day or the last slot, whichever comes first
+                long wordEnd = Math.min(Long.SIZE - 1 - fromBit, SLOTS_PER_DAY - 1 - slotOfDay);
+                int toBit = (int) (fromBit + Math.min(wordEnd, last - slot));
+                // Mask of bits fromBit..toBit inclusive, checked with a single AND
+                long mask = (-1L >>> (Long.SIZE - 1 - toBit)) & (-1L << fromBit);
+                if ((words[wordIndex(slot)] & mask) != 0) {
+                    return true;
+                }
+                slot += toBit - fromBit + 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Count, for each slot of each day in a range, how many rooms are busy.
+     * @param from First day of the heatmap
+     * @param to Last day of the heatmap (inclusive)
+     * @return One row of SLOTS_PER_DAY counts per day, or an empty list if the range is outside the horizon
+     */
+    public List<int[]> heatmap(LocalDate from, LocalDate to) {
+        Snapshot current = snapshot;
+        List<int[]> days = new ArrayList<>();
+        if (!enabled || current == null) {
+            return days;
+        }
+        LocalDate start = current.horizonStart();
+        LocalDate first = from.isBefore(start) ? start : from;
+        LocalDate lastInHorizon = start.plusDays(HORIZON_DAYS - 1);
+        LocalDate last = to.isAfter(lastInHorizon) ? lastInHorizon : to;
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            int wordOffset = (int) ChronoUnit.DAYS.between(start, day) * WORDS_PER_DAY;
+            int[] counts = new int[SLOTS_PER_DAY];
+            for (long[] words : current.bitmaps().values()) {
+                for (int w = 0; w < WORDS_PER_DAY; w++) {
+                    long bits = words[wordOffset + w];
+                    // Visit set bits only
+                    while (bits != 0) {
+                        counts[w * Long.SIZE + Long.numberOfTrailingZeros(bits)]++;
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            days.add(counts);
+        }
+        return days;
+    }
+
+    /**
+     * Drop a room's bitmap, used when the room itself is deleted.
+     * @param roomId Room that was deleted
+     */
+    public void evictRoom(Long roomId) {
+        Snapshot current = snapshot;
+        if (current != null) {
+            current.bitmaps().remove(roomId);
+        }
+    }
+
+    /**
+     * First day covered by the bitmaps.
+     * @return The start of the horizon, or null if the bitmaps have not been built
+     */
+    public LocalDate getHorizonStart() {
+        Snapshot current = snapshot;
+        return current == null ? null : current.horizonStart();
+    }
+
+    /**
+     * The start of a slot, for labelling heatmap columns.
+     * @param slot Slot of the day, 0 to SLOTS_PER_DAY - 1
+     */
+    public static LocalTime slotStart(int slot) {
+        return LocalTime.MIDNIGHT.plusMinutes((long) slot * SLOT_MINUTES);
+    }
+}
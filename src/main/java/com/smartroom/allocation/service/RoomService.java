@@ -1,15 +1,36 @@
 package com.smartroom.allocation.service;
 
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.dto.FreeSlot;
+import com.smartroom.allocation.dto.PageCursor;
+import com.smartroom.allocation.dto.RoomEquipment;
+import com.smartroom.allocation.dto.RoomBookingCount;
+import com.smartroom.allocation.dto.RoomBookingSummary;
+import com.smartroom.allocation.dto.RoomEquipmentSummary;
+import com.smartroom.allocation.dto.RoomProfile;
 import com.smartroom.allocation.dto.RoomResponseDTO;
+import com.smartroom.allocation.entity.EquipmentType;
 import com.smartroom.allocation.entity.Room;
 import com.smartroom.allocation.entity.RoomStatus;
 import com.smartroom.allocation.repository.BookingRepository;
+import com.smartroom.allocation.repository.EquipmentRepository;
 import com.smartroom.allocation.repository.RoomRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,6 +43,18 @@ public class RoomService {
 
     @Autowired BookingRepository bookingRepository;
 
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Autowired
+    private EquipmentRepository equipmentRepository;
+
+    @Autowired
+    private RoomOccupancyBitmap roomOccupancyBitmap;
+
+    @Autowired
+    private RoomCacheEvictor roomCacheEvictor;
+
     /**
      * Get all active rooms
      * @return List of active rooms
@@ -30,6 +63,63 @@ public class RoomService {
         return roomRepository.findByActiveTrue();
     }
 
+    /**
+     * Get all active rooms as DTOs, in three queries however many rooms there are
+     * @param summary If true, give each room its number of upcoming bookings instead of its booking list
+     * @return List of active rooms with their equipment and booking summaries or counts
+     */
+    @Transactional(readOnly = true)
+    public List<RoomResponseDTO> getActiveRoomDTOs(boolean summary) {
+        return withSummaries(roomRepository.findActiveRoomDTOs(), summary);
+    }
+
+    /**
+     * Get one keyset page of active rooms as DTOs, ordered by ID
+     * @param cursor NextCursor of the previous page, or null for the first page
+     * @param size Page size
+     * @param summary If true, give each room its number of upcoming bookings instead of its booking list
+     * @return The page of rooms with their equipment and booking summaries or counts
+     */
+    @Transactional(readOnly = true)
+    public Slice<RoomResponseDTO> getActiveRoomsPage(String cursor, int size, boolean summary) {
+        Slice<RoomResponseDTO> page = roomRepository.findActiveRoomPage(PageCursor.afterId(cursor), PageRequest.of(0, size));
+        withSummaries(page.getContent(), summary);
+        return page;
+    }
+
+    // Fill in the equipment list of room DTOs, and either their booking lists or upcoming booking counts, with one query each
+    private List<RoomResponseDTO> withSummaries(List<RoomResponseDTO> rooms, boolean summary) {
+        if (rooms.isEmpty()) {
+            return rooms;
+        }
+        List<Long> roomIds = rooms.stream().map(RoomResponseDTO::getId).collect(Collectors.toList());
+        Map<Long, List<RoomResponseDTO.EquipmentSummaryDTO>> equipment = new HashMap<>();
+        for (RoomEquipmentSummary item : equipmentRepository.findSummariesByRoomIds(roomIds)) {
+            equipment.computeIfAbsent(item.getRoomId(), id -> new ArrayList<>()).add(new RoomResponseDTO.EquipmentSummaryDTO(item));
+        }
+        for (RoomResponseDTO room : rooms) {
+            room.setEquipment(equipment.getOrDefault(room.getId(), new ArrayList<>()));
+        }
+        if (summary) {
+            Map<Long, Long> upcoming = new HashMap<>();
+            for (RoomBookingCount count : bookingRepository.countUpcomingBookingsByRoomIds(roomIds, LocalDateTime.now())) {
+                upcoming.put(count.getRoomId(), count.getUpcoming());
+            }
+            for (RoomResponseDTO room : rooms) {
+                room.setUpcomingBookings(upcoming.getOrDefault(room.getId(), 0L));
+            }
+            return rooms;
+        }
+        Map<Long, List<RoomResponseDTO.BookingSummaryDTO>> bookings = new HashMap<>();
+        for (RoomBookingSummary item : bookingRepository.findBookingSummariesByRoomIds(roomIds)) {
+            bookings.computeIfAbsent(item.getRoomId(), id -> new ArrayList<>()).add(new RoomResponseDTO.BookingSummaryDTO(item));
+        }
+        for (RoomResponseDTO room : rooms) {
+            room.setBookings(bookings.getOrDefault(room.getId(), new ArrayList<>()));
+        }
+        return rooms;
+    }
+
     /**
      * Find room by ID
      * @param id Room ID
@@ -55,9 +145,92 @@ public class RoomService {
      * @return List of available rooms
      */
     public List<Room> findAvailableRooms(LocalDateTime startTime, LocalDateTime endTime) {
+        if (roomOccupancyBitmap.covers(startTime, endTime)) {
+            // Rule out busy rooms from the occupancy bitmaps, then confirm the rest with one batched query
+            List<Room> rooms = roomRepository.findByActiveTrueAndStatus(RoomStatus.AVAILABLE);
+            Set<Long> free = new HashSet<>(roomOccupancyBitmap.findFreeRooms(
+                    rooms.stream().map(Room::getId).toList(), startTime, endTime));
+            return rooms.stream()
+                    .filter(room -> free.contains(room.getId()))
+                    .collect(Collectors.toList());
+        }
         return roomRepository.findAvailableRooms(startTime, endTime);
     }
 
+    /**
+     * Get every room that can take new bookings (active and not under maintenance) together with its working equipment.
+     * Uses two queries in total, whatever the number of rooms.
+     * @return Room profiles for searching and allocation
+     */
+    public List<RoomProfile> getBookableRoomProfiles() {
+        List<RoomProfile> profiles = roomRepository.findBookableRoomProfiles();
+        Map<Long, RoomProfile> byId = profiles.stream()
+                .collect(Collectors.toMap(RoomProfile::getRoomId, Function.identity()));
+        for (RoomEquipment equipment : equipmentRepository.findWorkingEquipmentTypes()) {
+            RoomProfile profile = byId.get(equipment.getRoomId());
+            if (profile != null) {
+                profile.getEquipment().add(equipment.getType());
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Find the earliest free windows of at least the given duration, across every suitable room.
+     * Loads the confirmed bookings of the range in one query and sweeps each room's bookings once in start order.
+     * @param duration Minimum length of a free window
+     * @param from Start of the search range (clamped to now)
+     * @param to End of the search range
+     * @param minCapacity Minimum room capacity, or null for any
+     * @param equipment Equipment the room must have working, or null for none
+     * @param limit Maximum number of windows to return
+     * @return Up to limit free windows, earliest first
+     */
+    public List<FreeSlot> findFreeSlots(Duration duration, LocalDateTime from, LocalDateTime to,
+                                        Integer minCapacity, Set<EquipmentType> equipment, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime searchFrom = from.isBefore(now) ? now : from;
+        if (!to.isAfter(searchFrom)) {
+            return List.of();
+        }
+
+        Map<Long, List<BookingSlot>> bookingsByRoom = new HashMap<>();
+        // Ordered by room and start time, so each room's list is already sorted for the sweep
+        for (BookingSlot slot : bookingRepository.findConfirmedSlotsBetween(searchFrom, to)) {
+            bookingsByRoom.computeIfAbsent(slot.getRoomId(), id -> new ArrayList<>()).add(slot);
+        }
+
+        List<FreeSlot> freeSlots = new ArrayList<>();
+        for (RoomProfile room : getBookableRoomProfiles()) {
+            if (!room.satisfies(minCapacity, equipment)) {
+                continue;
+            }
+            int found = 0;
+            LocalDateTime cursor = searchFrom;
+            for (BookingSlot booking : bookingsByRoom.getOrDefault(room.getRoomId(), List.of())) {
+                // A room's earliest windows come first, so no more than limit are needed from any one room
+                if (found == limit) {
+                    break;
+                }
+                if (!Duration.between(cursor, booking.getStartTime()).minus(duration).isNegative()) {
+                    freeSlots.add(new FreeSlot(room, cursor, booking.getStartTime()));
+                    found++;
+                }
+                if (booking.getEndTime().isAfter(cursor)) {
+                    cursor = booking.getEndTime();
+                }
+            }
+            if (found < limit && !Duration.between(cursor, to).minus(duration).isNegative()) {
+                freeSlots.add(new FreeSlot(room, cursor, to));
+            }
+        }
+
+        return freeSlots.stream()
+                .sorted(Comparator.comparing(FreeSlot::getStartTime).thenComparing(FreeSlot::getRoomId))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Find rooms with minimum capacity
      * @param minCapacity Minimum capacity required
@@ -157,6 +330,7 @@ public class RoomService {
         //return roomRepository.save(existingRoom);
         //notify users with upcoming bookings
         Room updatedRoom= roomRepository.save(existingRoom);
+        roomCacheEvictor.evictRoom(updatedRoom.getId());
         // Notify users with upcoming bookings
         List<String> recipientEmails = bookingRepository.findAll()
                 .stream()
@@ -180,6 +354,9 @@ public class RoomService {
     public boolean deleteRoomById(Long id) {
         if (roomRepository.existsById(id)) {
             roomRepository.deleteById(id);
+            bookingIntervalIndex.evictRoom(id); // the room's bookings are removed with it
+            roomOccupancyBitmap.evictRoom(id);
+            roomCacheEvictor.evictRoom(id);
             return true;
         }
         return false;
@@ -194,6 +371,9 @@ public class RoomService {
         Optional<Room> roomOpt = roomRepository.findByRoomNumber(roomNumber);
         if (roomOpt.isPresent()) {
             roomRepository.deleteById(roomOpt.get().getId());
+            bookingIntervalIndex.evictRoom(roomOpt.get().getId());
+            roomOccupancyBitmap.evictRoom(roomOpt.get().getId());
+            roomCacheEvictor.evictRoom(roomOpt.get().getId());
             return true;
         }
         return false;
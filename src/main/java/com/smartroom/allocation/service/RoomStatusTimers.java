@@ -0,0 +1,166 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.entity.RoomStatus;
+import com.smartroom.allocation.repository.BookingRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flips Room.status exactly when bookings start and end, instead of waiting for the next polling run.
+ * Every confirmed booking gets a timer at its start and at its end on a HierarchicalTimerWheel; timers are
+ * kept in sync through BookingChangedEvent. When a timer fires the room's status is re-evaluated from the
+ * database, so stale or duplicate timers are harmless. On startup the statuses are reconciled once and
+ * timers are created for every booking that has not ended yet.
+ * ScheduledTaskService.updateRoomStatuses still runs occasionally to catch bookings written by other instances.
+ */
+@Component
+public class RoomStatusTimers {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomStatusTimers.class);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomStatusUpdater roomStatusUpdater;
+
+    @Autowired
+    private ScheduledTaskService scheduledTaskService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${room-status.timers.enabled:true}")
+    private boolean enabled;
+
+    @Value("${room-status.timers.tick-ms:1000}")
+    private long tickMillis;
+
+    private volatile HierarchicalTimerWheel<Transition> wheel;
+
+    // Start and end timers per booking, so they can be cancelled when the booking changes
+    private final Map<Long, List<HierarchicalTimerWheel.Timer<Transition>>> timersByBooking = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    /** A point at which a room's status may change; bookingId is null for an immediate re-check. */
+    private record Transition(Long bookingId, Long roomId, boolean end) { }
+
+    /**
+     * Catch-up pass: reconcile every room once, then schedule the transitions of all bookings still to come.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        wheel = new HierarchicalTimerWheel<>(tickMillis, System.currentTimeMillis());
+        scheduledTaskService.updateRoomStatuses();
+
+        List<BookingSlot> slots = bookingRepository.findConfirmedSlotsEndingAfter(LocalDateTime.now());
+        for (BookingSlot slot : slots) {
+            schedule(slot);
+        }
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "room-status-timers");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        logger.info("Room status timers started with {} bookings scheduled", slots.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Reschedule a booking's transitions once its change has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        HierarchicalTimerWheel<Transition> current = wheel;
+        if (current == null) {
+            return;
+        }
+        BookingSlot previous = event.getPrevious();
+        if (previous != null) {
+            List<HierarchicalTimerWheel.Timer<Transition>> timers = timersByBooking.remove(previous.getBookingId());
+            if (timers != null) {
+                timers.forEach(HierarchicalTimerWheel.Timer::cancel);
+            }
+            // The booking may have been holding the room right now
+            LocalDateTime now = LocalDateTime.now();
+            if (previous.overlaps(now, now.plusNanos(1))) {
+                current.schedule(System.currentTimeMillis(), new Transition(null, previous.getRoomId(), false));
+            }
+        }
+        if (event.getCurrent() != null) {
+            schedule(event.getCurrent());
+        }
+    }
+
+    private void schedule(BookingSlot slot) {
+        if (!slot.getEndTime().isAfter(LocalDateTime.now())) {
+            return;
+        }
+        HierarchicalTimerWheel<Transition> current = wheel;
+        List<HierarchicalTimerWheel.Timer<Transition>> timers = List.of(
+                current.schedule(toEpochMillis(slot.getStartTime()), new Transition(slot.getBookingId(), slot.getRoomId(), false)),
+                current.schedule(toEpochMillis(slot.getEndTime()), new Transition(slot.getBookingId(), slot.getRoomId(), true)));
+        List<HierarchicalTimerWheel.Timer<Transition>> replaced = timersByBooking.put(slot.getBookingId(), timers);
+        if (replaced != null) {
+            replaced.forEach(HierarchicalTimerWheel.Timer::cancel);
+        }
+    }
+
+    private void tick() {
+        try {
+            List<Transition> due = wheel.advanceTo(System.currentTimeMillis());
+            if (due.isEmpty()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (Long roomId : due.stream().map(Transition::roomId).distinct().toList()) {
+                RoomStatus status = bookingRepository.isRoomInUse(roomId, now) ? RoomStatus.OCCUPIED : RoomStatus.AVAILABLE;
+                Boolean changed = transactionTemplate.execute(tx -> roomStatusUpdater.updateStatus(roomId, status));
+                if (Boolean.TRUE.equals(changed)) {
+                    logger.info("Room {} is now {}", roomId, status);
+                }
+            }
+            for (Transition transition : due) {
+                if (transition.end()) {
+                    timersByBooking.remove(transition.bookingId());
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Room status timer tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
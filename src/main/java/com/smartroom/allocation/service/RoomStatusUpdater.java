@@ -0,0 +1,78 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.entity.BookingStatus;
+import com.smartroom.allocation.entity.RoomStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based writes of Room.status, shared by the scheduled reconciliation and RoomStatusTimers.
+ * Each statement is a single UPDATE ... RETURNING id run over JDBC in the caller's transaction. A bulk HQL
+ * update would make Hibernate drop the whole rooms cache region on every run; here only the returned rooms
+ * are evicted, together with the cached queries, and only when a status actually changed.
+ */
+@Component
+public class RoomStatusUpdater {
+
+    // Rooms holding a confirmed booking at the given time that are not yet marked occupied
+    public static final String MARK_OCCUPIED =
+            "UPDATE rooms r SET status = ? WHERE (r.status IS NULL OR r.status <> ?) " +
+            "AND EXISTS (SELECT 1 FROM bookings b WHERE b.room_id = r.id AND b.status = ? " +
+            "AND b.start_time <= ? AND b.end_time >= ?) RETURNING r.id";
+
+    // Rooms without a confirmed booking at the given time that are not yet marked available
+    public static final String MARK_AVAILABLE =
+            "UPDATE rooms r SET status = ? WHERE (r.status IS NULL OR r.status <> ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings b WHERE b.room_id = r.id AND b.status = ? " +
+            "AND b.start_time <= ? AND b.end_time >= ?) RETURNING r.id";
+
+    private static final String UPDATE_ONE =
+            "UPDATE rooms SET status = ? WHERE id = ? AND (status IS NULL OR status <> ?) RETURNING id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RoomCacheEvictor roomCacheEvictor;
+
+    /**
+     * Mark every room holding a confirmed booking at a given time as occupied.
+     * @param time Time to check
+     * @return IDs of the rooms whose status changed
+     */
+    public List<Long> markOccupiedRooms(LocalDateTime time) {
+        return update(MARK_OCCUPIED, RoomStatus.OCCUPIED, time);
+    }
+
+    /**
+     * Mark every room without a confirmed booking at a given time as available.
+     * @param time Time to check
+     * @return IDs of the rooms whose status changed
+     */
+    public List<Long> markAvailableRooms(LocalDateTime time) {
+        return update(MARK_AVAILABLE, RoomStatus.AVAILABLE, time);
+    }
+
+    /**
+     * Set one room's status, skipping the write when it already has that status.
+     * @param roomId Room ID
+     * @param status New status
+     * @return true if the status changed
+     */
+    public boolean updateStatus(Long roomId, RoomStatus status) {
+        List<Long> changed = jdbcTemplate.queryForList(UPDATE_ONE, Long.class, status.name(), roomId, status.name());
+        roomCacheEvictor.evictRoomStatuses(changed);
+        return !changed.isEmpty();
+    }
+
+    private List<Long> update(String sql, RoomStatus status, LocalDateTime time) {
+        List<Long> changed = jdbcTemplate.queryForList(sql, Long.class,
+                status.name(), status.name(), BookingStatus.CONFIRMED.name(), time, time);
+        roomCacheEvictor.evictRoomStatuses(changed);
+        return changed;
+    }
+}
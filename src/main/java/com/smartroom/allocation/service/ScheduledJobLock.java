@@ -0,0 +1,114 @@
+package com.smartroom.allocation.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+
+/**
+ * Lease-based lock that lets exactly one instance run each scheduled job per tick.
+ * A row in job_locks holds the lease of each job. Taking the lease is a single UPSERT that only succeeds
+ * when the previous lease has expired, judged by the database clock so instance clocks do not matter.
+ * A lease is always bounded by lockAtMostFor, so it passes to another instance if its holder dies;
+ * on release it is kept until lockAtLeastFor has passed, so instances whose schedules fire a few
+ * seconds apart do not run the same tick twice.
+ */
+@Component
+public class ScheduledJobLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScheduledJobLock.class);
+
+    private static final String ACQUIRE = """
+            INSERT INTO job_locks (name, locked_until, locked_at, locked_by)
+            VALUES (?, now() + ? * interval '1 millisecond', now(), ?)
+            ON CONFLICT (name) DO UPDATE
+                SET locked_until = EXCLUDED.locked_until, locked_at = EXCLUDED.locked_at, locked_by = EXCLUDED.locked_by
+                WHERE job_locks.locked_until <= now()""";
+
+    private static final String RELEASE = """
+            UPDATE job_locks SET locked_until = GREATEST(now(), locked_at + ? * interval '1 millisecond')
+            WHERE name = ? AND locked_by = ?""";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${scheduler.lock.enabled:true}")
+    private boolean enabled;
+
+    // Lock statements commit on their own, even when a job runs inside a transaction
+    private TransactionTemplate lockTransaction;
+
+    private String instanceId;
+
+    @PostConstruct
+    public void init() {
+        lockTransaction = new TransactionTemplate(transactionManager);
+        lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        instanceId = host + ":" + ProcessHandle.current().pid();
+    }
+
+    /**
+     * Run a job if no other instance holds its lease.
+     * @param jobName Unique name of the job
+     * @param lockAtMostFor How long the lease lasts if this instance dies while running the job
+     * @param lockAtLeastFor Minimum time the lease is held, even if the job finishes sooner
+     * @param job The job to run
+     * @return true if the job ran on this instance
+     */
+    public boolean runExclusively(String jobName, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable job) {
+        if (!enabled) {
+            job.run();
+            return true;
+        }
+        if (!tryAcquire(jobName, lockAtMostFor)) {
+            logger.debug("Skipping {}: lease held by another instance", jobName);
+            return false;
+        }
+        try {
+            job.run();
+            return true;
+        } finally {
+            release(jobName, lockAtLeastFor);
+        }
+    }
+
+    private boolean tryAcquire(String jobName, Duration lockAtMostFor) {
+        try {
+            Integer acquired = lockTransaction.execute(status ->
+                    jdbcTemplate.update(ACQUIRE, jobName, lockAtMostFor.toMillis(), instanceId));
+            return acquired != null && acquired > 0;
+        } catch (Exception e) {
+            // Without the lock table we cannot tell whether another instance is running the job
+            logger.warn("Could not acquire lease for {}: {}", jobName, e.getMessage());
+            return false;
+        }
+    }
+
+    private void release(String jobName, Duration lockAtLeastFor) {
+        try {
+            lockTransaction.execute(status ->
+                    jdbcTemplate.update(RELEASE, lockAtLeastFor.toMillis(), jobName, instanceId));
+        } catch (Exception e) {
+            // The lease still expires after lockAtMostFor
+            logger.warn("Could not release lease for {}: {}", jobName, e.getMessage());
+        }
+    }
+}
@@ -1,54 +1,63 @@
 package com.smartroom.allocation.service;
 
-import com.smartroom.allocation.entity.Booking;
-import com.smartroom.allocation.entity.BookingStatus;
-import com.smartroom.allocation.entity.Room;
-import com.smartroom.allocation.entity.RoomStatus;
-import com.smartroom.allocation.repository.BookingRepository;
-import com.smartroom.allocation.repository.RoomRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
 
+/**
+ * Periodic maintenance jobs. Every job runs under a ScheduledJobLock lease, so with several instances
+ * deployed each tick is executed by one of them only.
+ */
 @Service
 public class ScheduledTaskService {
 
     private static final Logger logger = LoggerFactory.getLogger(ScheduledTaskService.class);
 
     @Autowired
-    private BookingRepository bookingRepository;
+    private RoomStatusUpdater roomStatusUpdater;
 
     @Autowired
-    private RoomRepository roomRepository;
+    private BookingService bookingService;
 
     @Autowired
-    private BookingService bookingService;
+    private BookingPurgeService bookingPurgeService;
+
+    @Autowired
+    private ScheduledJobLock scheduledJobLock;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Must be longer than any job takes, or a second instance may start it while it is still running
+    @Value("${scheduler.lock.lock-at-most-for:PT30M}")
+    private Duration lockAtMostFor;
+
+    // Must be shorter than the shortest job interval
+    @Value("${scheduler.lock.lock-at-least-for:PT30S}")
+    private Duration lockAtLeastFor;
 
     /**
      * Delete cancelled bookings older than 30 days.
-     * Runs daily at midnight.
+     * Runs daily at midnight. Deletion is chunked and optionally archived; see BookingPurgeService.
      */
     @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
     public void deleteOldCancelledBookings() {
-        logger.info("Starting scheduled task to delete old cancelled bookings");
-        LocalDateTime threshold = LocalDateTime.now().minusDays(30);
-
-        List<Booking> cancelledBookings = bookingRepository.findByStatusAndUpdatedAtBefore(
-                BookingStatus.CANCELLED, threshold
-        );
+        scheduledJobLock.runExclusively("deleteOldCancelledBookings", lockAtMostFor, lockAtLeastFor, this::purgeCancelledBookings);
+    }
 
-        if (!cancelledBookings.isEmpty()) {
-            bookingRepository.deleteAll(cancelledBookings);
-            logger.info("Deleted {} old cancelled bookings", cancelledBookings.size());
+    private void purgeCancelledBookings() {
+        logger.info("Starting scheduled task to delete old cancelled bookings");
+        long started = System.currentTimeMillis();
+        int purged = bookingPurgeService.purgeCancelledBookings();
+        if (purged > 0) {
+            logger.info("Deleted {} old cancelled bookings in {} ms", purged, System.currentTimeMillis() - started);
         } else {
             logger.info("No old cancelled bookings found to delete");
         }
@@ -56,41 +65,28 @@ public class ScheduledTaskService {
 
     /**
      * Update room statuses based on active bookings.
-     * Runs every minute to check booking start/end times.
+     * RoomStatusTimers flips statuses as bookings start and end; this reconciliation only catches
+     * what the timers cannot see (bookings written by other instances), so it runs every 15 minutes by default.
+     * Two set-based UPDATEs (occupied, then available) replace loading and saving every room; see RoomStatusUpdater.
      */
-    @Scheduled(cron = "0 * * * * ?")
-    @Transactional
+    @Scheduled(cron = "${room-status.reconcile-cron:0 0/15 * * * ?}")
     public void updateRoomStatuses() {
-        logger.info("Starting scheduled task to update room statuses");
-        LocalDateTime now = LocalDateTime.now();
-
-        // Get all confirmed bookings active at the current time
-        List<Booking> activeBookings = bookingRepository.findCurrentBookings(now);
+        scheduledJobLock.runExclusively("updateRoomStatuses", lockAtMostFor, lockAtLeastFor, this::refreshRoomStatuses);
+    }
 
-        // Identify rooms that are currently occupied
-        Set<Long> occupiedRoomIds = new HashSet<>();
-        for (Booking booking : activeBookings) {
-            occupiedRoomIds.add(booking.getRoom().getId());
-        }
+    private void refreshRoomStatuses() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
 
-        // Get all rooms
-        List<Room> rooms = roomRepository.findAll();
-
-        // Update each room's status
-        for (Room room : rooms) {
-            RoomStatus newStatus = occupiedRoomIds.contains(room.getId())
-                    ? RoomStatus.OCCUPIED
-                    : RoomStatus.AVAILABLE;
-
-            if (room.getStatus() != newStatus) {
-                room.setStatus(newStatus);
-                roomRepository.save(room);
-                logger.info("Updated room {} (ID: {}) status to {}",
-                        room.getRoomNumber(), room.getId(), newStatus);
-            }
-        }
+        int[] counts = transactionTemplate.execute(status -> new int[] {
+                roomStatusUpdater.markOccupiedRooms(now).size(),
+                roomStatusUpdater.markAvailableRooms(now).size()
+        });
+        int occupied = counts[0];
+        int available = counts[1];
 
-        logger.info("Completed room status update task");
+        logger.info("Room status update: {} rooms marked OCCUPIED, {} marked AVAILABLE in {} ms",
+                occupied, available, System.currentTimeMillis() - started);
     }
 
     /**
@@ -101,10 +97,16 @@ public class ScheduledTaskService {
     @Scheduled(fixedRate = 300000) // Runs every 5 minutes
     // @Scheduled(cron = "0 0 * * * ?") // Example: Runs at the top of every hour
     public void updateCompletedBookingsScheduled() {
+        scheduledJobLock.runExclusively("updateCompletedBookings", lockAtMostFor, lockAtLeastFor, this::completeEndedBookings);
+    }
+
+    private void completeEndedBookings() {
         logger.info("Starting scheduled task to update booking statuses to COMPLETED...");
         try {
-            bookingService.updateCompletedBookingsStatus(); // Call the method in BookingService
-            logger.info("Finished scheduled task to update booking statuses.");
+            long started = System.currentTimeMillis();
+            int completed = bookingService.updateCompletedBookingsStatus(); // Call the method in BookingService
+            logger.info("Finished scheduled task to update booking statuses: {} bookings completed in {} ms",
+                    completed, System.currentTimeMillis() - started);
         } catch (Exception e) {
             logger.error("Error during scheduled booking status update: {}", e.getMessage(), e);
         }
@@ -0,0 +1,496 @@
+package com.smartroom.allocation.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.dto.TimetableImportJob;
+import com.smartroom.allocation.dto.TimetableImportRow;
+import com.smartroom.allocation.entity.Booking;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.User;
+import com.smartroom.allocation.exception.BookingConflictException;
+import com.smartroom.allocation.repository.BookingRepository;
+import com.smartroom.allocation.repository.RoomRepository;
+import com.smartroom.allocation.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk import of a semester timetable, one recurring series per row.
+ * The upload is spooled to a temporary file and then read line by line on a background worker,
+ * so memory use depends on the chunk size and not on the size of the file. Disk use is bounded by the
+ * upload size limit times the number of imports allowed to be pending at once. The rows of a chunk are
+ * grouped by room and saved a few rooms per transaction, each room checked with one conflict query,
+ * so interactive bookings never wait on room locks held for a whole chunk.
+ * Job status is kept in memory on the instance that accepted the upload; other instances do not know the job.
+ */
+@Service
+public class TimetableImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableImportService.class);
+
+    // Finished jobs are kept this long so their final status can still be fetched
+    private static final long JOB_RETENTION_HOURS = 24;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private NotificationOutbox notificationOutbox;
+
+    @Autowired
+    private RoomBookingLocks roomBookingLocks;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${booking.import.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${booking.import.rooms-per-transaction:4}")
+    private int roomsPerTransaction;
+
+    @Value("${booking.import.max-upload-bytes:52428800}")
+    private long maxUploadBytes;
+
+    // Imports being uploaded, queued or running; each may hold a spool file of up to maxUploadBytes
+    @Value("${booking.import.max-pending:3}")
+    private int maxPending;
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // Spool files not yet deleted, so the ones of imports still queued at shutdown are removed too
+    private final Set<Path> spools = ConcurrentHashMap.newKeySet();
+
+    // Imports run one at a time, so they never compete with each other for room locks
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "timetable-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, TimetableImportJob> jobs = new ConcurrentHashMap<>();
+
+    /** A parsed row together with the line it came from. */
+    private record ImportLine(long lineNumber, TimetableImportRow row) { }
+
+    /** A row expanded into occurrences, waiting for its conflict check. */
+    private static final class PendingSeries {
+        private final ImportLine line;
+        private final Room room;
+        private final User user;
+        private final List<Booking> occurrences;
+        private Map<Integer, List<Long>> databaseConflicts = Map.of();
+        private final List<Booking> accepted = new ArrayList<>();
+
+        private PendingSeries(ImportLine line, Room room, User user, List<Booking> occurrences) {
+            this.line = line;
+            this.room = room;
+            this.user = user;
+            this.occurrences = occurrences;
+        }
+    }
+
+    /** What a batch transaction did; only applied to the job once the transaction has committed. */
+    private static final class ChunkResult {
+        private final List<PendingSeries> imported = new ArrayList<>();
+        private final Map<Long, String> rejected = new LinkedHashMap<>();
+    }
+
+    /**
+     * Spool an uploaded timetable to disk and queue it for import.
+     * @param body The request body, read to the end before this method returns
+     * @param format CSV (with a header row) or NDJSON, one series per line
+     * @param submittedBy Username of the admin running the import; owns rows without a username
+     * @return The queued job
+     * @throws IllegalArgumentException if the upload is larger than booking.import.max-upload-bytes
+     * @throws IllegalStateException if booking.import.max-pending imports are already pending
+     * @throws IOException if the upload could not be spooled
+     */
+    public TimetableImportJob submit(InputStream body, TimetableImportJob.Format format, String submittedBy) throws IOException {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new IllegalStateException("Too many timetable imports in progress, try again later");
+        }
+        Path spool = null;
+        try {
+            spool = Files.createTempFile("timetable-import-", "." + format.name().toLowerCase());
+            spools.add(spool);
+            long size = spoolTo(body, spool);
+
+            purgeFinishedJobs();
+            TimetableImportJob job = new TimetableImportJob(UUID.randomUUID().toString(), format, submittedBy);
+            Path file = spool;
+            executor.submit(() -> run(job, file));
+            jobs.put(job.getJobId(), job);
+            logger.info("Queued timetable import {} ({}, {} bytes) for {}", job.getJobId(), format, size, submittedBy);
+            return job;
+        } catch (IOException | RuntimeException e) {
+            pending.decrementAndGet();
+            deleteSpool(spool);
+            throw e;
+        }
+    }
+
+    // Copy the upload to the spool file, failing as soon as it exceeds the size limit
+    private long spoolTo(InputStream body, Path spool) throws IOException {
+        long size = 0;
+        byte[] buffer = new byte[8192];
+        try (OutputStream out = Files.newOutputStream(spool)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > maxUploadBytes) {
+                    throw new IllegalArgumentException("Timetable upload exceeds the limit of " + maxUploadBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    private void deleteSpool(Path spool) {
+        if (spool == null) {
+            return;
+        }
+        spools.remove(spool);
+        try {
+            Files.deleteIfExists(spool);
+        } catch (IOException e) {
+            logger.warn("Could not delete import spool file {}: {}", spool, e.getMessage());
+        }
+    }
+
+    /**
+     * Look up an import job.
+     * @param jobId ID returned when the import was submitted
+     * @return The job, if it is still known
+     */
+    public Optional<TimetableImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        List.copyOf(spools).forEach(this::deleteSpool);
+    }
+
+    private void purgeFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(JOB_RETENTION_HOURS);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private void run(TimetableImportJob job, Path spool) {
+        job.start();
+        try (BufferedReader reader = Files.newBufferedReader(spool, StandardCharsets.UTF_8)) {
+            List<String> header = null;
+            List<ImportLine> chunk = new ArrayList<>(chunkSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (job.getFormat() == TimetableImportJob.Format.CSV && header == null) {
+                    header = parseCsvLine(line);
+                    continue;
+                }
+                job.rowRead();
+                try {
+                    chunk.add(new ImportLine(lineNumber, parseRow(line, header)));
+                } catch (Exception e) {
+                    job.rowRejected(lineNumber, "Unreadable row: " + e.getMessage());
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    importChunk(job, chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+            job.complete();
+            logger.info("Timetable import {} finished: {} series imported, {} bookings created, {} rows rejected",
+                    job.getJobId(), job.getSeriesImported(), job.getBookingsCreated(), job.getRowsRejected());
+        } catch (Exception e) {
+            logger.error("Timetable import {} failed: {}", job.getJobId(), e.getMessage(), e);
+            job.fail(e.getMessage());
+        } finally {
+            deleteSpool(spool);
+            pending.decrementAndGet();
+        }
+    }
+
+    private TimetableImportRow parseRow(String line, List<String> header) throws IOException {
+        if (header == null) {
+            return objectMapper.readValue(line, TimetableImportRow.class);
+        }
+        List<String> values = parseCsvLine(line);
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            // Leave empty cells out so they fall back to the row defaults
+            if (!values.get(i).isBlank()) {
+                fields.put(header.get(i).trim(), values.get(i).trim());
+            }
+        }
+        return objectMapper.convertValue(fields, TimetableImportRow.class);
+    }
+
+    /**
+     * Split one CSV line into fields. Double-quoted fields may contain commas and "" escapes,
+     * but every row must fit on a single line.
+     */
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private void importChunk(TimetableImportJob job, List<ImportLine> chunk) {
+        // Rows of the same room must share a transaction to be checked against each other
+        Map<String, List<ImportLine>> linesByRoom = new LinkedHashMap<>();
+        for (ImportLine line : chunk) {
+            linesByRoom.computeIfAbsent(roomKey(line.row()), key -> new ArrayList<>()).add(line);
+        }
+        List<ImportLine> batch = new ArrayList<>();
+        int roomsInBatch = 0;
+        for (List<ImportLine> roomLines : linesByRoom.values()) {
+            batch.addAll(roomLines);
+            if (++roomsInBatch >= roomsPerTransaction) {
+                importBatch(job, batch);
+                batch = new ArrayList<>();
+                roomsInBatch = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(job, batch);
+        }
+    }
+
+    /**
+     * Import the rows of a few rooms in one transaction, holding only those rooms' locks.
+     */
+    private void importBatch(TimetableImportJob job, List<ImportLine> batch) {
+        List<ChunkResult> results = new ArrayList<>();
+        try {
+            results.add(transactionTemplate.execute(status -> importRows(batch, job.getSubmittedBy())));
+        } catch (BookingConflictException e) {
+            // Another writer booked one of the rooms while the batch was being saved.
+            // Retry row by row so that only the clashing series are rejected.
+            logger.warn("Timetable import {} batch hit a concurrent booking, retrying row by row", job.getJobId());
+            for (ImportLine line : batch) {
+                try {
+                    results.add(transactionTemplate.execute(status -> importRows(List.of(line), job.getSubmittedBy())));
+                } catch (BookingConflictException rowConflict) {
+                    job.rowRejected(line.lineNumber(), rowConflict.getMessage());
+                }
+            }
+        }
+
+        for (ChunkResult result : results) {
+            result.rejected.forEach(job::rowRejected);
+            for (PendingSeries series : result.imported) {
+                job.seriesImported(series.accepted.size(), series.occurrences.size() - series.accepted.size());
+            }
+        }
+    }
+
+    /**
+     * Validate and save a batch of rows. Must run inside a transaction.
+     */
+    private ChunkResult importRows(List<ImportLine> lines, String submittedBy) {
+        ChunkResult result = new ChunkResult();
+        Map<String, Room> rooms = new HashMap<>();
+        Map<String, User> users = new HashMap<>();
+
+        List<PendingSeries> pending = new ArrayList<>();
+        for (ImportLine line : lines) {
+            try {
+                Room room = resolveRoom(line.row(), rooms);
+                User user = resolveUser(line.row(), submittedBy, users);
+                List<Booking> occurrences = bookingService.expandOccurrences(line.row(), room, user, UUID.randomUUID().toString());
+                pending.add(new PendingSeries(line, room, user, occurrences));
+            } catch (IllegalArgumentException e) {
+                result.rejected.put(line.lineNumber(), e.getMessage());
+            }
+        }
+
+        // Hold every room of the batch until commit, then check each room against the database in one query
+        Map<Long, List<PendingSeries>> seriesByRoom = new LinkedHashMap<>();
+        for (PendingSeries series : pending) {
+            seriesByRoom.computeIfAbsent(series.room.getId(), id -> new ArrayList<>()).add(series);
+        }
+        seriesByRoom.keySet().stream().sorted().forEach(roomBookingLocks::lockUntilTransactionEnds);
+        for (List<PendingSeries> roomSeries : seriesByRoom.values()) {
+            assignDatabaseConflicts(roomSeries);
+        }
+
+        // Walk the rows in file order, also checking them against rows accepted earlier in this batch
+        Map<Long, List<BookingSlot>> acceptedSlots = new HashMap<>();
+        List<Booking> toSave = new ArrayList<>();
+        for (PendingSeries series : pending) {
+            List<BookingSlot> roomSlots = acceptedSlots.computeIfAbsent(series.room.getId(), id -> new ArrayList<>());
+            String conflict = null;
+            for (int i = 0; i < series.occurrences.size(); i++) {
+                Booking occurrence = series.occurrences.get(i);
+                boolean clashes = series.databaseConflicts.containsKey(i) || roomSlots.stream()
+                        .anyMatch(slot -> slot.overlaps(occurrence.getStartTime(), occurrence.getEndTime()));
+                if (!clashes) {
+                    series.accepted.add(occurrence);
+                } else if (!series.line.row().isSkipConflicts()) {
+                    conflict = "Room " + series.room.getRoomNumber() + " is already booked on " + occurrence.getStartTime().toLocalDate();
+                    break;
+                }
+            }
+            if (conflict == null && series.accepted.isEmpty()) {
+                conflict = "Every occurrence conflicts with an existing booking";
+            }
+            if (conflict != null) {
+                series.accepted.clear();
+                result.rejected.put(series.line.lineNumber(), conflict);
+                continue;
+            }
+            for (Booking booking : series.accepted) {
+                roomSlots.add(new BookingSlot(null, series.room.getId(), booking.getStartTime(), booking.getEndTime()));
+            }
+            toSave.addAll(series.accepted);
+            result.imported.add(series);
+        }
+
+        if (!toSave.isEmpty()) {
+            List<Booking> saved = bookingService.saveBookings(() -> bookingRepository.saveAll(toSave),
+                    "Another booking was made for one of the imported rooms while the batch was being saved.");
+            for (Booking booking : saved) {
+                eventPublisher.publishEvent(BookingChangedEvent.of(null, booking));
+            }
+        }
+        // Award points and queue confirmations in the same transaction, so they commit or roll back with the bookings
+        for (PendingSeries series : result.imported) {
+            userService.updateUserPoints(series.user.getId(), series.accepted.size() * 5);
+            notificationOutbox.recurringSeriesConfirmed(series.accepted);
+        }
+        return result;
+    }
+
+    private void assignDatabaseConflicts(List<PendingSeries> roomSeries) {
+        List<Booking> occurrences = new ArrayList<>();
+        for (PendingSeries series : roomSeries) {
+            occurrences.addAll(series.occurrences);
+        }
+        Map<Integer, List<Long>> conflicts = bookingService.findSeriesConflicts(roomSeries.get(0).room, occurrences);
+        if (conflicts.isEmpty()) {
+            return;
+        }
+        // Translate positions in the combined list back to positions within each series
+        int offset = 0;
+        for (PendingSeries series : roomSeries) {
+            Map<Integer, List<Long>> own = new HashMap<>();
+            for (int i = 0; i < series.occurrences.size(); i++) {
+                List<Long> clashing = conflicts.get(offset + i);
+                if (clashing != null) {
+                    own.put(i, clashing);
+                }
+            }
+            series.databaseConflicts = own;
+            offset += series.occurrences.size();
+        }
+    }
+
+    // Key a row's room the way resolveRoom caches it; rows without a room all share the empty key
+    private static String roomKey(TimetableImportRow row) {
+        if (row.getRoomId() != null) {
+            return "id:" + row.getRoomId();
+        }
+        if (row.getRoomNumber() != null) {
+            return "number:" + row.getRoomNumber();
+        }
+        return "";
+    }
+
+    private Room resolveRoom(TimetableImportRow row, Map<String, Room> rooms) {
+        if (row.getRoomId() != null) {
+            return rooms.computeIfAbsent(roomKey(row), key -> roomRepository.findById(row.getRoomId())
+                    .orElseThrow(() -> new IllegalArgumentException("Room with ID " + row.getRoomId() + " not found.")));
+        }
+        if (row.getRoomNumber() != null) {
+            return rooms.computeIfAbsent(roomKey(row), key -> roomRepository.findByRoomNumber(row.getRoomNumber())
+                    .orElseThrow(() -> new IllegalArgumentException("Room " + row.getRoomNumber() + " not found.")));
+        }
+        throw new IllegalArgumentException("Either roomId or roomNumber is required");
+    }
+
+    private User resolveUser(TimetableImportRow row, String submittedBy, Map<String, User> users) {
+        String username = row.getUsername() != null ? row.getUsername() : submittedBy;
+        return users.computeIfAbsent(username, key -> userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("User " + username + " not found.")));
+    }
+}
@@ -1,17 +1,24 @@
 package com.smartroom.allocation.service;
 
+import com.smartroom.allocation.dto.PageCursor;
 import com.smartroom.allocation.dto.UserResponseDTO;
+import com.smartroom.allocation.entity.Booking;
+import com.smartroom.allocation.entity.BookingStatus;
 import com.smartroom.allocation.entity.User;
 import com.smartroom.allocation.entity.UserRole;
 import com.smartroom.allocation.repository.BookingRepository;
 import com.smartroom.allocation.repository.UserRepository;
+import com.smartroom.allocation.security.CustomUserDetailsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class UserService {
@@ -28,6 +35,12 @@ public class UserService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
     /**
      * Register a new user
      * @param user User to register
@@ -51,20 +64,22 @@ public class UserService {
 
     /*Get all users available
      * for admins only
-     * Now updated to return DTOs to hide sensitive details like password*/
+     * Now updated to return DTOs to hide sensitive details like password
+     * Selected as DTOs in one query, booking counts included*/
+    @Transactional(readOnly = true)
     public List<UserResponseDTO> getAllUsers() {
-        List<User> users = userRepository.findAll();
-        //populate totalBookings and then map to DTOs
-//        for (User user : users) {
-//            int count = bookingRepository.countByUser(user);
-//            user.setTotalBookings(count); // Ensure this setter exists
-//        }
-//        return users;
-        return users.stream().map(user -> {
-            int count= bookingRepository.countByUser(user);
-            user.setTotalBookings(count);
-            return new UserResponseDTO(user); //converts user entity to DTO
-        }).collect(Collectors.toList());
+        return userRepository.findAllUserDTOs();
+    }
+
+    /**
+     * Get one keyset page of users, ordered by ID
+     * @param cursor NextCursor of the previous page, or null for the first page
+     * @param size Page size
+     * @return The page, as DTOs
+     */
+    @Transactional(readOnly = true)
+    public Slice<UserResponseDTO> getUsersPage(String cursor, int size) {
+        return userRepository.findUserPage(PageCursor.afterId(cursor), PageRequest.of(0, size));
     }
 
     /**
@@ -143,6 +158,7 @@ public class UserService {
         // Encode the new password and save it
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userDetailsService.evictUser(user.getUsername());
 
     }
 
@@ -156,6 +172,7 @@ public class UserService {
      */
     public Optional<UserResponseDTO> updateUserById(Long id, User userUpdate) { //changed return type
         return userRepository.findById(id).map(user -> {
+            String previousUsername = user.getUsername();
             // Check if Username or email that is being updated already exists
             if(userUpdate.getUsername() !=null && !user.getUsername().equals(userUpdate.getUsername()) && userRepository.existsByUsername(userUpdate.getUsername())){
                 throw new RuntimeException("Username already exists!");
@@ -196,6 +213,8 @@ public class UserService {
             }
 
             User updatedUser = userRepository.save(user);
+            userDetailsService.evictUser(previousUsername);
+            userDetailsService.evictUser(updatedUser.getUsername());
 
             //populate totalBookings before converting to DTO
             int count = bookingRepository.countByUser(updatedUser);
@@ -209,7 +228,13 @@ public class UserService {
         Optional<User> userOpt = userRepository.findById(id);
         if (userOpt.isPresent()) {
             notificationService.sendDeletionNotification(userOpt.get()); // Add this
+            // The user's bookings are removed with them, so release the rooms they were holding
+            List<Booking> confirmedBookings = bookingRepository.findByUserAndStatus(userOpt.get(), BookingStatus.CONFIRMED);
             userRepository.deleteById(id);
+            userDetailsService.evictUser(userOpt.get().getUsername());
+            for (Booking booking : confirmedBookings) {
+                eventPublisher.publishEvent(BookingChangedEvent.released(booking));
+            }
             return true;
         }
         return false;
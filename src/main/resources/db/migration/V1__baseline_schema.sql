@@ -0,0 +1,56 @@
+-- Baseline: the tables as previously created by hibernate ddl-auto=update.
+-- Databases created that way are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+CREATE TABLE users (
+    id             bigint       NOT NULL PRIMARY KEY,
+    username       varchar(255) UNIQUE,
+    email          varchar(255) UNIQUE,
+    password       varchar(255),
+    full_name      varchar(255),
+    role           varchar(255) CHECK (role IN ('ADMIN', 'LECTURER', 'STUDENT')),
+    department     varchar(255),
+    active         boolean,
+    created_at     timestamp(6),
+    usage_streak   integer,
+    total_bookings integer      NOT NULL,
+    points         integer
+);
+
+CREATE TABLE rooms (
+    id          bigint       NOT NULL PRIMARY KEY,
+    room_number varchar(255) UNIQUE,
+    name        varchar(255),
+    capacity    integer,
+    building    varchar(255),
+    floor       varchar(255),
+    location    varchar(255),
+    room_type   varchar(255) CHECK (room_type IN ('LECTURE_HALL', 'CLASSROOM', 'LABORATORY', 'CONFERENCE_ROOM',
+                                                  'COMPUTER_LAB', 'AUDITORIUM')),
+    status      varchar(255) CHECK (status IN ('AVAILABLE', 'OCCUPIED', 'MAINTENANCE', 'RESERVED')),
+    active      boolean
+);
+
+CREATE TABLE equipment (
+    id          bigint       NOT NULL PRIMARY KEY,
+    name        varchar(255),
+    type        varchar(255) CHECK (type IN ('PROJECTOR', 'PA_SYSTEM', 'WHITEBOARD', 'COMPUTER', 'AIR_CONDITIONING',
+                                             'MICROPHONE', 'SCREEN', 'SPEAKERS')),
+    description varchar(255),
+    working     boolean,
+    room_id     bigint REFERENCES rooms (id)
+);
+
+CREATE TABLE bookings (
+    id                 bigint       NOT NULL PRIMARY KEY,
+    user_id            bigint       NOT NULL REFERENCES users (id),
+    room_id            bigint       NOT NULL REFERENCES rooms (id),
+    start_time         timestamp(6),
+    end_time           timestamp(6),
+    purpose            varchar(255),
+    status             varchar(255) CHECK (status IN ('CONFIRMED', 'CANCELLED', 'COMPLETED', 'NO_SHOW')),
+    created_at         timestamp(6),
+    updated_at         timestamp(6),
+    notes              varchar(255),
+    recurring          boolean      NOT NULL,
+    recurring_group_id varchar(255)
+);
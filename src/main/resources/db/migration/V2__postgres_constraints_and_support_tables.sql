@@ -0,0 +1,72 @@
+-- PostgreSQL objects that used to be applied on startup by DatabaseSchemaInitializer.
+-- Written to be idempotent, since baselined databases may already have some of them.
+
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Two CONFIRMED bookings may never hold the same room at overlapping times.
+-- tsrange defaults to [start, end), matching the application's own conflict checks.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'bookings_no_overlap') THEN
+        ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+            EXCLUDE USING gist (room_id WITH =, tsrange(start_time, end_time) WITH &&)
+            WHERE (status = 'CONFIRMED');
+    END IF;
+EXCEPTION
+    -- Existing overlapping rows must be cleaned up by hand; the application checks still apply meanwhile
+    WHEN exclusion_violation THEN
+        RAISE WARNING 'bookings_no_overlap not added: %', SQLERRM;
+END
+$$;
+
+-- Pooled ID sequences; the increment must match the allocationSize of the entities' @SequenceGenerator
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS rooms_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS equipment_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+
+-- Tables created before the switch from IDENTITY to pooled sequences already hold IDs the sequences
+-- know nothing about. The pooled optimizer hands out the block (value - 50, value], so the next value
+-- must be at least max(id) + 50.
+DO $$
+DECLARE
+    entity record;
+    max_id bigint;
+    last   bigint;
+BEGIN
+    FOR entity IN SELECT * FROM (VALUES ('users', 'users_seq'), ('rooms', 'rooms_seq'),
+                                        ('equipment', 'equipment_seq'), ('bookings', 'bookings_seq')) AS t(tbl, seq)
+    LOOP
+        EXECUTE format('SELECT COALESCE(MAX(id), 0) FROM %I', entity.tbl) INTO max_id;
+        EXECUTE format('SELECT last_value FROM %I', entity.seq) INTO last;
+        IF last < max_id THEN
+            PERFORM setval(entity.seq, max_id + 50, false);
+        END IF;
+    END LOOP;
+END
+$$;
+
+-- Archive of purged bookings (booking.purge.archive-mode=TABLE)
+CREATE TABLE IF NOT EXISTS bookings_archive (
+    booking_id  bigint    PRIMARY KEY,
+    archived_at timestamp NOT NULL,
+    payload     jsonb     NOT NULL
+);
+
+-- lz4 needs PostgreSQL 14+ built with lz4; the default pglz compression is kept otherwise
+DO $$
+BEGIN
+    ALTER TABLE bookings_archive ALTER COLUMN payload SET COMPRESSION lz4;
+EXCEPTION
+    WHEN OTHERS THEN
+        RAISE NOTICE 'bookings_archive keeps default compression: %', SQLERRM;
+END
+$$;
+
+-- Leases of the scheduled jobs, see ScheduledJobLock
+CREATE TABLE IF NOT EXISTS job_locks (
+    name         varchar(64)  PRIMARY KEY,
+    locked_until timestamp    NOT NULL,
+    locked_at    timestamp    NOT NULL,
+    locked_by    varchar(255) NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Indexes behind the hot queries of BookingRepository, RoomRepository and EquipmentRepository.
+-- QueryPlanTests fails if one of those queries falls back to a sequential scan.
+
+-- Per-room conflict checks, upcoming bookings of a room, findByRoomAndEndTimeAfter
+CREATE INDEX IF NOT EXISTS idx_bookings_room_status_time ON bookings (room_id, status, start_time, end_time);
+
+-- EXISTS / NOT EXISTS subqueries of the room status refresh and series conflict checks
+CREATE INDEX IF NOT EXISTS idx_bookings_room_confirmed_time ON bookings (room_id, start_time, end_time)
+    WHERE status = 'CONFIRMED';
+
+-- My bookings, bookings of a user by status, countByUser
+CREATE INDEX IF NOT EXISTS idx_bookings_user_status ON bookings (user_id, status);
+
+-- Purge of old cancelled bookings
+CREATE INDEX IF NOT EXISTS idx_bookings_status_updated_at ON bookings (status, updated_at);
+
+-- Completion job and timer catch-up (by end), upcoming counts and occupancy/allocation windows (by start)
+CREATE INDEX IF NOT EXISTS idx_bookings_confirmed_end ON bookings (end_time) WHERE status = 'CONFIRMED';
+CREATE INDEX IF NOT EXISTS idx_bookings_confirmed_start ON bookings (start_time) WHERE status = 'CONFIRMED';
+
+-- Foreign keys are not indexed automatically
+CREATE INDEX IF NOT EXISTS idx_equipment_room_id ON equipment (room_id);
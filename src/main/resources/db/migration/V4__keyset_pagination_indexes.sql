@@ -0,0 +1,5 @@
+-- Keyset pages of a user's bookings: WHERE user_id = ? AND status = ? ORDER BY start_time DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_bookings_user_status_start ON bookings (user_id, status, start_time, id);
+
+-- Covered by the index above
+DROP INDEX IF EXISTS idx_bookings_user_status;
@@ -0,0 +1,20 @@
+-- Booking emails waiting to be sent, written in the same transaction as the booking change.
+-- OutboxDispatcher sends PENDING rows once next_attempt_at has passed and deletes them when sent.
+-- Failed sends are retried with exponential backoff; rows that keep failing are marked DEAD and kept,
+-- with their last error, for inspection.
+CREATE TABLE IF NOT EXISTS notification_outbox (
+    id              bigserial    PRIMARY KEY,
+    kind            varchar(40)  NOT NULL,
+    recipient       varchar(255) NOT NULL,
+    subject         varchar(255) NOT NULL,
+    body            text         NOT NULL,
+    status          varchar(20)  NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'DEAD')),
+    attempts        integer      NOT NULL DEFAULT 0,
+    next_attempt_at timestamp    NOT NULL DEFAULT now(),
+    last_error      text,
+    created_at      timestamp    NOT NULL DEFAULT now()
+);
+
+-- Dispatcher batches: due PENDING rows, oldest first
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due ON notification_outbox (next_attempt_at)
+    WHERE status = 'PENDING';
@@ -0,0 +1,16 @@
+-- V2 only raised a warning when overlapping bookings kept bookings_no_overlap from being added,
+-- so a database could end up without the constraint that BookingService relies on to reject double bookings.
+-- Add it now if it is missing; overlapping CONFIRMED rows fail this migration until they are cleaned up by hand.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'bookings_no_overlap') THEN
+        ALTER TABLE bookings ADD CONSTRAINT bookings_no_overlap
+            EXCLUDE USING gist (room_id WITH =, tsrange(start_time, end_time) WITH &&)
+            WHERE (status = 'CONFIRMED');
+    END IF;
+EXCEPTION
+    WHEN exclusion_violation THEN
+        RAISE EXCEPTION 'bookings_no_overlap cannot be added while confirmed bookings overlap: %', SQLERRM
+            USING ERRCODE = 'exclusion_violation';
+END
+$$;
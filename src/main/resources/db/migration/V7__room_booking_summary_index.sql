@@ -0,0 +1,4 @@
+-- Room list booking summaries: WHERE room_id IN (...) ORDER BY id. A page of rooms still matches bookings on
+-- most heap pages, and through the wider room/status/time index the planner prefers a sequential scan; this
+-- narrow index covers the selected columns, so vacuumed pages need not be read at all.
+CREATE INDEX IF NOT EXISTS idx_bookings_room_summary ON bookings (room_id, id) INCLUDE (purpose, status);
@@ -0,0 +1,314 @@
+package com.smartroom.allocation.repository;
+
+import com.smartroom.allocation.entity.BookingStatus;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.User;
+import com.smartroom.allocation.service.RoomStatusUpdater;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Calls the hot repository queries against a realistically sized data set, records the SQL and bind values
+ * Hibernate (or JdbcTemplate) actually sends, and runs EXPLAIN on each statement with the same values and default
+ * planner settings. The test fails if any of them scans bookings sequentially; equipment holds a handful of rows
+ * per room and fits in a few pages, so the planner is right to read it whole.
+ * The seed is committed and vacuumed like a live table until every bookings page is all-visible, so index-only
+ * scans are costed as they would be in production, and removed afterwards. The queries themselves run in a
+ * transaction that is rolled back.
+ */
+@SpringBootTest
+class QueryPlanTests {
+
+	private static final int ROOMS = 150;
+	private static final int USERS = 1000;
+	private static final int EQUIPMENT_PER_ROOM = 6;
+	// One year of history and three months ahead, three two-hour bookings per room and day
+	private static final int DAYS_BACK = 365;
+	private static final int DAYS_AHEAD = 90;
+	private static final int PAGE_SIZE = 20;
+
+	private static final ThreadLocal<List<RecordedStatement>> RECORDED = new ThreadLocal<>();
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private EquipmentRepository equipmentRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RoomStatusUpdater roomStatusUpdater;
+
+	@BeforeEach
+	void setUp() throws InterruptedException {
+		seed();
+		// A page is only marked all-visible once its rows are older than every open transaction and, with
+		// synchronous_commit off, once their commit has reached WAL; retry until VACUUM gets all of bookings
+		jdbcTemplate.execute("VACUUM ANALYZE users, rooms, equipment, bookings");
+		for (int attempt = 0; attempt < 20 && !allVisible("bookings"); attempt++) {
+			Thread.sleep(250);
+			jdbcTemplate.execute("VACUUM bookings");
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		jdbcTemplate.update("DELETE FROM bookings WHERE room_id IN (SELECT id FROM rooms WHERE room_number LIKE 'PLAN-%')");
+		jdbcTemplate.update("DELETE FROM equipment WHERE room_id IN (SELECT id FROM rooms WHERE room_number LIKE 'PLAN-%')");
+		jdbcTemplate.update("DELETE FROM rooms WHERE room_number LIKE 'PLAN-%'");
+		jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'plan-%'");
+	}
+
+	@Test
+	void hotQueriesUseIndexes() {
+		List<String> sequentialScans = new ArrayList<>();
+		transactionTemplate.executeWithoutResult(status -> {
+			status.setRollbackOnly();
+			queries().forEach((name, query) -> {
+				List<RecordedStatement> statements = record(query);
+				assertTrue(!statements.isEmpty(), name + " sent no SQL");
+				for (RecordedStatement statement : statements) {
+					List<String> plan = explain(statement);
+					if (plan.stream().anyMatch(line -> line.contains("Seq Scan on bookings"))) {
+						sequentialScans.add(name + ": " + statement.sql() + "\n" + String.join("\n", plan));
+					}
+				}
+			});
+		});
+		assertTrue(sequentialScans.isEmpty(), "Sequential scans found:\n" + String.join("\n\n", sequentialScans));
+	}
+
+	private Map<String, Runnable> queries() {
+		LocalDateTime now = LocalDateTime.now();
+		LocalDateTime later = now.plusHours(2);
+		List<Long> roomIds = jdbcTemplate.queryForList(
+				"SELECT id FROM rooms WHERE room_number LIKE 'PLAN-%' ORDER BY id LIMIT " + PAGE_SIZE, Long.class);
+		Long roomId = roomIds.get(0);
+		Long userId = jdbcTemplate.queryForObject("SELECT min(id) FROM users WHERE username LIKE 'plan-%'", Long.class);
+		List<Long> bookingIds = jdbcTemplate.queryForList(
+				"SELECT id FROM bookings WHERE room_id = ? ORDER BY id LIMIT 100", Long.class, roomId);
+		Room room = roomRepository.getReferenceById(roomId);
+		User user = userRepository.getReferenceById(userId);
+		List<LocalDateTime> seriesStarts = IntStream.range(0, 12).mapToObj(week -> later.plusWeeks(week)).toList();
+		List<LocalDateTime> seriesEnds = seriesStarts.stream().map(start -> start.plusHours(1)).toList();
+
+		Map<String, Runnable> queries = new LinkedHashMap<>();
+		queries.put("BookingRepository.countConflictingBookings", () -> bookingRepository.countConflictingBookings(room, now, later));
+		queries.put("BookingRepository.findByUser", () -> bookingRepository.findByUser(user));
+		queries.put("BookingRepository.findByUserAndStatus", () -> bookingRepository.findByUserAndStatus(user, BookingStatus.CONFIRMED));
+		queries.put("BookingRepository.findBookingDTOsByUserAndStatus",
+				() -> bookingRepository.findBookingDTOsByUserAndStatus(user, BookingStatus.CONFIRMED));
+		queries.put("BookingRepository.findUserBookingPage",
+				() -> bookingRepository.findUserBookingPage(user, BookingStatus.COMPLETED, PageRequest.of(0, PAGE_SIZE)));
+		queries.put("BookingRepository.findUserBookingPageAfter",
+				() -> bookingRepository.findUserBookingPageAfter(user, BookingStatus.COMPLETED, now.minusDays(30), Long.MAX_VALUE,
+						PageRequest.of(0, PAGE_SIZE)));
+		queries.put("BookingRepository.findByRoomAndEndTimeAfter", () -> bookingRepository.findByRoomAndEndTimeAfter(room, now));
+		queries.put("BookingRepository.findCurrentBookings", () -> bookingRepository.findCurrentBookings(now));
+		queries.put("BookingRepository.findUpcomingBookingsForRoom", () -> bookingRepository.findUpcomingBookingsForRoom(room, now));
+		queries.put("BookingRepository.findUpcomingBookingDTOsForRoom", () -> bookingRepository.findUpcomingBookingDTOsForRoom(roomId, now));
+		queries.put("BookingRepository.findBookingSummariesByRoomIds", () -> bookingRepository.findBookingSummariesByRoomIds(roomIds));
+		queries.put("BookingRepository.countUpcomingBookingsByRoomIds", () -> bookingRepository.countUpcomingBookingsByRoomIds(roomIds, now));
+		queries.put("BookingRepository.findBookedRoomIds", () -> bookingRepository.findBookedRoomIds(roomIds, now, later));
+		queries.put("BookingRepository.findOverlappingBookingsExcludingCurrent",
+				() -> bookingRepository.findOverlappingBookingsExcludingCurrent(roomId, now, later, 0L));
+		queries.put("BookingRepository.countUpcomingBookings", () -> bookingRepository.countUpcomingBookings(now));
+		queries.put("BookingRepository.findConfirmedSlotsEndedBefore",
+				() -> bookingRepository.findConfirmedSlotsEndedBefore(now, 0L, PageRequest.of(0, 1000)));
+		queries.put("BookingRepository.findConfirmedSlotsEndingAfter", () -> bookingRepository.findConfirmedSlotsEndingAfter(now));
+		queries.put("BookingRepository.isRoomInUse", () -> bookingRepository.isRoomInUse(roomId, now));
+		queries.put("BookingRepository.findConfirmedSlotsBetween", () -> bookingRepository.findConfirmedSlotsBetween(now, now.plusDays(7)));
+		queries.put("BookingRepository.findIdsByStatusAndUpdatedAtBefore",
+				() -> bookingRepository.findIdsByStatusAndUpdatedAtBefore(BookingStatus.CANCELLED, now.minusDays(30), 0L,
+						PageRequest.of(0, 500)));
+		queries.put("BookingRepository.findJsonByIds", () -> bookingRepository.findJsonByIds(bookingIds));
+		queries.put("BookingRepository.findSeriesConflicts", () -> bookingRepository.findSeriesConflicts(roomId, seriesStarts, seriesEnds));
+		queries.put("RoomRepository.findAvailableRooms", () -> roomRepository.findAvailableRooms(now, later));
+		queries.put("RoomStatusUpdater.markOccupiedRooms", () -> roomStatusUpdater.markOccupiedRooms(now));
+		queries.put("RoomStatusUpdater.markAvailableRooms", () -> roomStatusUpdater.markAvailableRooms(now));
+		queries.put("EquipmentRepository.findByRoom", () -> equipmentRepository.findByRoom(room));
+		queries.put("EquipmentRepository.findSummariesByRoomIds", () -> equipmentRepository.findSummariesByRoomIds(roomIds));
+		return queries;
+	}
+
+	private boolean allVisible(String table) {
+		return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+				"SELECT relallvisible >= relpages FROM pg_class WHERE oid = ?::regclass", Boolean.class, table));
+	}
+
+	// USERS users, ROOMS rooms with EQUIPMENT_PER_ROOM items each, and three bookings per room and day. Past
+	// bookings are mostly completed, with some cancellations and no-shows; today's and future ones mostly confirmed.
+	private void seed() {
+		jdbcTemplate.update(
+				"INSERT INTO users (id, username, email, password, full_name, role, department, active, created_at, total_bookings) " +
+						"SELECT (SELECT coalesce(max(id), 0) FROM users) + g, 'plan-' || g, 'plan-' || g || '@example.com', " +
+						"'password', 'Plan User ' || g, CASE WHEN g % 10 = 0 THEN 'LECTURER' ELSE 'STUDENT' END, 'Testing', " +
+						"true, localtimestamp - interval '2 years', 0 FROM generate_series(1, ?) g", USERS);
+		jdbcTemplate.update(
+				"INSERT INTO rooms (id, room_number, name, capacity, building, floor, room_type, status, active) " +
+						"SELECT (SELECT coalesce(max(id), 0) FROM rooms) + g, 'PLAN-' || g, 'Plan Room ' || g, 20 + g % 5 * 20, " +
+						"'Block ' || g % 6, (g % 4)::text, 'CLASSROOM', 'AVAILABLE', true FROM generate_series(1, ?) g", ROOMS);
+		jdbcTemplate.update(
+				"INSERT INTO equipment (id, name, type, description, working, room_id) " +
+						"SELECT (SELECT coalesce(max(id), 0) FROM equipment) + row_number() OVER (), 'Plan item ' || e, " +
+						"(ARRAY['PROJECTOR', 'WHITEBOARD', 'COMPUTER', 'MICROPHONE', 'SCREEN', 'SPEAKERS'])[e], 'Plan test', " +
+						"e % 7 <> 0, r.id FROM rooms r CROSS JOIN generate_series(1, ?) e WHERE r.room_number LIKE 'PLAN-%'",
+				EQUIPMENT_PER_ROOM);
+		jdbcTemplate.update(
+				"INSERT INTO bookings (id, user_id, room_id, start_time, end_time, purpose, status, created_at, updated_at, recurring) " +
+						"SELECT (SELECT coalesce(max(id), 0) FROM bookings) + row_number() OVER (), " +
+						"u.ids[1 + floor(t.pick * array_length(u.ids, 1))::int], t.room_id, t.start_time, " +
+						"t.start_time + interval '2 hours', 'Plan test', " +
+						"CASE WHEN t.day < 0 THEN CASE WHEN t.roll < 0.10 THEN 'CANCELLED' WHEN t.roll < 0.15 THEN 'NO_SHOW' ELSE 'COMPLETED' END " +
+						"ELSE CASE WHEN t.roll < 0.08 THEN 'CANCELLED' ELSE 'CONFIRMED' END END, " +
+						"t.start_time - interval '14 days', t.start_time - interval '2 days', false " +
+						"FROM (SELECT r.id AS room_id, d AS day, current_date + d + make_interval(hours => s) AS start_time, " +
+						"random() AS roll, random() AS pick FROM rooms r CROSS JOIN generate_series(?, ?) d " +
+						"CROSS JOIN unnest(ARRAY[8, 11, 14]) s WHERE r.room_number LIKE 'PLAN-%' ORDER BY d, s, r.id) t " +
+						"CROSS JOIN (SELECT array_agg(id) AS ids FROM users WHERE username LIKE 'plan-%') u",
+				-DAYS_BACK, DAYS_AHEAD);
+	}
+
+	private static List<RecordedStatement> record(Runnable query) {
+		List<RecordedStatement> statements = new ArrayList<>();
+		RECORDED.set(statements);
+		try {
+			query.run();
+		} finally {
+			RECORDED.remove();
+		}
+		return statements;
+	}
+
+	private List<String> explain(RecordedStatement statement) {
+		return jdbcTemplate.query(connection -> {
+			PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql());
+			for (Binding binding : statement.bindings()) {
+				invoke(binding.setter(), explain, binding.args());
+			}
+			return explain;
+		}, (rs, row) -> rs.getString(1));
+	}
+
+	private record Binding(Method setter, Object[] args) {
+	}
+
+	private record RecordedStatement(String sql, List<Binding> bindings) {
+	}
+
+	/**
+	 * Wraps the DataSource so that, on a thread that is recording, every executed PreparedStatement is kept
+	 * with the setXxx(index, value) calls made on it. Everything else is passed straight through.
+	 */
+	@TestConfiguration
+	static class RecordingConfig {
+
+		@Bean
+		static BeanPostProcessor recordingDataSourcePostProcessor() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof DataSource)) {
+						return bean;
+					}
+					// A class-based proxy, so the bean can still be injected as HikariDataSource
+					ProxyFactory factory = new ProxyFactory(bean);
+					factory.setProxyTargetClass(true);
+					factory.addAdvice((MethodInterceptor) invocation -> {
+						Object result = invocation.proceed();
+						return result instanceof Connection connection ? recordingConnection(connection) : result;
+					});
+					return factory.getProxy();
+				}
+			};
+		}
+
+		private static Connection recordingConnection(Connection connection) {
+			return proxy(Connection.class, connection, (target, method, args) -> {
+				Object result = invoke(method, target, args);
+				if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement) {
+					return recordingStatement(statement, (String) args[0]);
+				}
+				return result;
+			});
+		}
+
+		private static PreparedStatement recordingStatement(PreparedStatement statement, String sql) {
+			List<Binding> bindings = new ArrayList<>();
+			return proxy(PreparedStatement.class, statement, (target, method, args) -> {
+				String name = method.getName();
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					bindings.add(new Binding(method, args.clone()));
+				} else if (name.equals("clearParameters")) {
+					bindings.clear();
+				} else if (name.startsWith("execute") && (args == null || args.length == 0) && RECORDED.get() != null) {
+					RECORDED.get().add(new RecordedStatement(sql, List.copyOf(bindings)));
+				}
+				return invoke(method, target, args);
+			});
+		}
+	}
+
+	private interface Handler<T> {
+		Object handle(T target, Method method, Object[] args) throws Throwable;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+		InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+		return (T) Proxy.newProxyInstance(QueryPlanTests.class.getClassLoader(), new Class<?>[] {type}, invocationHandler);
+	}
+
+	private static Object invoke(Method method, Object target, Object[] args) {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw sneakyThrow(e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <E extends Throwable> RuntimeException sneakyThrow(Throwable throwable) throws E {
+		throw (E) throwable;
+	}
+}
@@ -0,0 +1,113 @@
+package com.smartroom.allocation.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the cache of validated tokens in front of the signature check: expired and tampered tokens are still
+ * rejected, callers cannot change what the cache holds, and the cache stays within jwt.validated-cache.max-size.
+ */
+class JwtTokenUtilTests {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(
+			"a test signing key that is long enough for HS512 signatures, 64+".getBytes(StandardCharsets.UTF_8));
+	private static final long CACHE_MAX_SIZE = 10;
+
+	private JwtTokenUtil jwtTokenUtil;
+
+	@BeforeEach
+	void setUp() {
+		jwtTokenUtil = tokenUtil(3600L);
+	}
+
+	@Test
+	void cachedTokenIsRejectedOnceExpired() throws InterruptedException {
+		JwtTokenUtil shortLived = tokenUtil(1L);
+		String token = shortLived.generateToken(user("alice"));
+		Claims claims = shortLived.validateAndGetClaims(token);
+		assertEquals("alice", claims.getSubject());
+		assertEquals(1, validatedTokens(shortLived).estimatedSize());
+
+		// exp has whole-second precision, so wait until just past it
+		Thread.sleep(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()) + 50);
+
+		assertThrows(ExpiredJwtException.class, () -> shortLived.validateAndGetClaims(token));
+		assertThrows(ExpiredJwtException.class, () -> shortLived.validateAndGetClaims(token));
+	}
+
+	@Test
+	void tamperedTokenIsNeverServedFromTheCache() {
+		String token = jwtTokenUtil.generateToken(user("alice"));
+		jwtTokenUtil.validateAndGetClaims(token);
+
+		String[] parts = token.split("\\.");
+		String forgedPayload = Base64.getUrlEncoder().withoutPadding().encodeToString(
+				new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+						.replace("\"alice\"", "\"admin\"").getBytes(StandardCharsets.UTF_8));
+		String forgedSubject = parts[0] + "." + forgedPayload + "." + parts[2];
+		char flipped = parts[2].charAt(10) == 'A' ? 'B' : 'A';
+		String forgedSignature = parts[0] + "." + parts[1] + "." + parts[2].substring(0, 10) + flipped + parts[2].substring(11);
+
+		assertThrows(SignatureException.class, () -> jwtTokenUtil.validateAndGetClaims(forgedSubject));
+		assertThrows(SignatureException.class, () -> jwtTokenUtil.validateAndGetClaims(forgedSignature));
+		assertEquals("alice", jwtTokenUtil.validateAndGetClaims(token).getSubject());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void callersGetTheirOwnCopyOfTheClaims() {
+		String token = jwtTokenUtil.generateToken(user("alice"));
+		Claims first = jwtTokenUtil.validateAndGetClaims(token);
+
+		first.setSubject("mallory");
+		((List<Object>) first.get("authorities")).add("ROLE_ADMIN");
+
+		Claims second = jwtTokenUtil.validateAndGetClaims(token);
+		assertEquals("alice", second.getSubject());
+		assertEquals(List.of("ROLE_STUDENT"), second.get("authorities"));
+	}
+
+	@Test
+	void cacheIsBoundedByMaxSize() {
+		for (int i = 0; i < CACHE_MAX_SIZE * 10; i++) {
+			jwtTokenUtil.validateAndGetClaims(jwtTokenUtil.generateToken(user("user" + i)));
+		}
+
+		Cache<String, Claims> cache = validatedTokens(jwtTokenUtil);
+		cache.cleanUp();
+		assertTrue(cache.estimatedSize() <= CACHE_MAX_SIZE, "cache holds " + cache.estimatedSize() + " tokens");
+	}
+
+	private static JwtTokenUtil tokenUtil(long expirationSeconds) {
+		JwtTokenUtil util = new JwtTokenUtil();
+		ReflectionTestUtils.setField(util, "secret", SECRET);
+		ReflectionTestUtils.setField(util, "expiration", expirationSeconds);
+		ReflectionTestUtils.setField(util, "validatedCacheMaxSize", CACHE_MAX_SIZE);
+		util.init();
+		return util;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Cache<String, Claims> validatedTokens(JwtTokenUtil util) {
+		return (Cache<String, Claims>) ReflectionTestUtils.getField(util, "validatedTokens");
+	}
+
+	private static UserDetails user(String username) {
+		return User.withUsername(username).password("password").authorities("ROLE_STUDENT").build();
+	}
+}
@@ -0,0 +1,84 @@
+package com.smartroom.allocation.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of validating the same token on every request, before and after the validated-token cache.
+ * Not part of the test run; start main() from the IDE, or after mvn test-compile:
+ * java -cp target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=/dev/stdout)
+ * com.smartroom.allocation.security.JwtValidationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtValidationBenchmark {
+
+	private static final String SECRET = Base64.getEncoder().encodeToString(
+			"a benchmark signing key that is long enough for HS512 signatures".getBytes(StandardCharsets.UTF_8));
+
+	private JwtTokenUtil jwtTokenUtil;
+	// The util's parser, built once with the precomputed key
+	private JwtParser parser;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		jwtTokenUtil = new JwtTokenUtil();
+		ReflectionTestUtils.setField(jwtTokenUtil, "secret", SECRET);
+		ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 3600L);
+		ReflectionTestUtils.setField(jwtTokenUtil, "validatedCacheMaxSize", 10000L);
+		jwtTokenUtil.init();
+		parser = (JwtParser) ReflectionTestUtils.getField(jwtTokenUtil, "parser");
+		token = jwtTokenUtil.generateToken(User.withUsername("alice").password("password").authorities("ROLE_STUDENT").build());
+	}
+
+	// The old validateToken: subject and expiration read through separate parses, each deriving the key from the secret
+	@Benchmark
+	public boolean parseThreeTimes() {
+		String username = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+		Date expiration = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getExpiration();
+		Date expirationAgain = Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getExpiration();
+		return username.equals("alice") && expiration.after(new Date()) && expirationAgain.after(new Date());
+	}
+
+	// A cache miss: one parse and signature check with the precomputed key
+	@Benchmark
+	public Claims parseOnce() {
+		return parser.parseClaimsJws(token).getBody();
+	}
+
+	// A repeat request with the same token: hash, cache lookup and a copy of the claims
+	@Benchmark
+	public Claims cachedValidation() {
+		return jwtTokenUtil.validateAndGetClaims(token);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtValidationBenchmark.class.getSimpleName()).build()).run();
+	}
+}
@@ -0,0 +1,137 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.RecurringBookingReport;
+import com.smartroom.allocation.dto.RecurringBookingRequest;
+import com.smartroom.allocation.entity.Booking;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.RoomType;
+import com.smartroom.allocation.entity.User;
+import com.smartroom.allocation.entity.UserRole;
+import com.smartroom.allocation.repository.RoomRepository;
+import com.smartroom.allocation.repository.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Saves the same 30-week recurring series twice, once with the configured JDBC batching and once with batching
+ * switched off for the session, and compares the prepared statement counts from Hibernate's statistics.
+ * Batched, the series takes one sequence fetch and one INSERT batch; unbatched, one INSERT per occurrence.
+ */
+@SpringBootTest(properties = "notification.outbox.enabled=false")
+class BookingBatchingTests {
+
+	private static final int WEEKS = 30;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private HikariDataSource dataSource;
+
+	private User user;
+	private Room batchedRoom;
+	private Room unbatchedRoom;
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		user = userRepository.save(new User("batch-" + suffix, "batch-" + suffix + "@example.com",
+				"password", "Batch Test", UserRole.LECTURER, "Testing"));
+		batchedRoom = roomRepository.save(new Room("BATCH-A-" + suffix, "Batch Test Room", 30, "Test", "0", RoomType.CLASSROOM));
+		unbatchedRoom = roomRepository.save(new Room("BATCH-B-" + suffix, "Batch Test Room", 30, "Test", "0", RoomType.CLASSROOM));
+	}
+
+	@AfterEach
+	void tearDown() {
+		for (Room room : new Room[] {batchedRoom, unbatchedRoom}) {
+			jdbcTemplate.update("DELETE FROM bookings WHERE room_id = ?", room.getId());
+			roomRepository.deleteById(room.getId());
+		}
+		jdbcTemplate.update("DELETE FROM notification_outbox WHERE recipient = ?", user.getEmail());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void recurringSeriesIsInsertedInBatches() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		assertTrue(statistics.isStatisticsEnabled(), "hibernate.generate_statistics must be on");
+		assertEquals("true", dataSource.getDataSourceProperties().getProperty("reWriteBatchedInserts"));
+
+		long[] batched = saveSeries(statistics, batchedRoom, null);
+		long[] unbatched = saveSeries(statistics, unbatchedRoom, 1);
+
+		assertEquals(WEEKS, batched[0], "bookings inserted with batching");
+		assertEquals(WEEKS, unbatched[0], "bookings inserted without batching");
+		assertTrue(unbatched[1] >= WEEKS, "without batching each booking is its own statement, got " + unbatched[1]);
+		// Conflict check, sequence fetch, INSERT batch and the points update, give or take a lookup
+		assertTrue(batched[1] < WEEKS / 5, "batched: " + batched[1] + " statements, unbatched: " + unbatched[1]);
+	}
+
+	// Saves a WEEKS-long series for a room and returns {bookings inserted, statements prepared}
+	private long[] saveSeries(Statistics statistics, Room room, Integer sessionBatchSize) {
+		long insertsBefore = statistics.getEntityStatistics(Booking.class.getName()).getInsertCount();
+		long preparedBefore = statistics.getPrepareStatementCount();
+
+		RecurringBookingReport report = transactionTemplate.execute(status -> {
+			if (sessionBatchSize != null) {
+				entityManager.unwrap(Session.class).setJdbcBatchSize(sessionBatchSize);
+			}
+			return bookingService.createRecurringBookings(request(room), user);
+		});
+
+		assertEquals(WEEKS, report.getCreatedBookings().size());
+		return new long[] {
+				statistics.getEntityStatistics(Booking.class.getName()).getInsertCount() - insertsBefore,
+				statistics.getPrepareStatementCount() - preparedBefore
+		};
+	}
+
+	private static RecurringBookingRequest request(Room room) {
+		LocalDate start = LocalDate.now().plusWeeks(1);
+		RecurringBookingRequest request = new RecurringBookingRequest();
+		request.setRoomId(room.getId());
+		request.setSemesterStartDate(start);
+		request.setSemesterEndDate(start.plusWeeks(WEEKS).minusDays(1));
+		request.setDayOfWeek(start.getDayOfWeek());
+		request.setStartTime(LocalTime.of(9, 0));
+		request.setEndTime(LocalTime.of(11, 0));
+		request.setPurpose("Batch test");
+		return request;
+	}
+}
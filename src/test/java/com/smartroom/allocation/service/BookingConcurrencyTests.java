@@ -0,0 +1,115 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.entity.Booking;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.RoomType;
+import com.smartroom.allocation.entity.User;
+import com.smartroom.allocation.entity.UserRole;
+import com.smartroom.allocation.exception.BookingConflictException;
+import com.smartroom.allocation.repository.BookingRepository;
+import com.smartroom.allocation.repository.RoomRepository;
+import com.smartroom.allocation.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingConcurrencyTests {
+
+	private static final int THREADS = 16;
+	private static final int ATTEMPTS_PER_THREAD = 10;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private Room room;
+	private User user;
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		user = userRepository.save(new User("stress-" + suffix, "stress-" + suffix + "@example.com",
+				"password", "Stress Test", UserRole.LECTURER, "Testing"));
+		room = roomRepository.save(new Room("STRESS-" + suffix, "Stress Test Room", 30, "Test", "0", RoomType.CLASSROOM));
+	}
+
+	@AfterEach
+	void tearDown() {
+		bookingRepository.deleteAll(bookingRepository.findByRoomAndEndTimeAfter(room, LocalDateTime.now().minusYears(1)));
+		roomRepository.deleteById(room.getId());
+		userRepository.deleteById(user.getId());
+	}
+
+	@Test
+	void concurrentBookingsForSameRoomNeverOverlap() throws Exception {
+		LocalDateTime base = LocalDateTime.now().plusDays(7).truncatedTo(ChronoUnit.HOURS);
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Integer>> results = new ArrayList<>();
+
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			results.add(executor.submit(() -> {
+				start.await();
+				int created = 0;
+				for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+					// Staggered 90-minute windows every 15 minutes, so most attempts clash with each other
+					LocalDateTime startTime = base.plusMinutes(15L * ((thread + i * THREADS) % 24));
+					try {
+						bookingService.createBooking(new Booking(user, room, startTime, startTime.plusMinutes(90), "Stress test"));
+						created++;
+					} catch (BookingConflictException e) {
+						// expected for most attempts
+					}
+				}
+				return created;
+			}));
+		}
+		start.countDown();
+
+		int created = 0;
+		for (Future<Integer> result : results) {
+			created += result.get(2, TimeUnit.MINUTES);
+		}
+		executor.shutdown();
+
+		List<Booking> persisted = bookingService.getUpcomingBookingsForRoom(room);
+		assertTrue(created > 0, "at least one booking should succeed");
+		assertEquals(created, persisted.size(), "every successful booking should be persisted");
+		for (int i = 0; i < persisted.size(); i++) {
+			for (int j = i + 1; j < persisted.size(); j++) {
+				Booking a = persisted.get(i);
+				Booking b = persisted.get(j);
+				boolean overlap = a.getStartTime().isBefore(b.getEndTime()) && b.getStartTime().isBefore(a.getEndTime());
+				assertFalse(overlap, "bookings " + a.getId() + " and " + b.getId() + " overlap");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+package com.smartroom.allocation.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the wheel with a one-millisecond tick from time 0, so deadlines are tick numbers.
+ */
+class HierarchicalTimerWheelTests {
+
+	private static final long LEVEL_1_SPAN = 64;
+	private static final long LEVEL_2_SPAN = 64 * 64;
+	private static final long LEVEL_3_SPAN = 64 * 64 * 64;
+	private static final long WHEEL_SPAN = 64L * 64 * 64 * 64;
+
+	private final HierarchicalTimerWheel<String> wheel = new HierarchicalTimerWheel<>(1, 0);
+
+	@ParameterizedTest
+	@ValueSource(longs = {
+			1, LEVEL_1_SPAN - 1, LEVEL_1_SPAN, LEVEL_1_SPAN + 1,
+			LEVEL_2_SPAN - 1, LEVEL_2_SPAN, LEVEL_2_SPAN + 1,
+			LEVEL_3_SPAN - 1, LEVEL_3_SPAN, WHEEL_SPAN - 1
+	})
+	void firesExactlyAtDeadlineOnEveryLevel(long deadline) {
+		wheel.schedule(deadline, "timer");
+
+		assertEquals(List.of(), wheel.advanceTo(deadline - 1));
+		assertEquals(List.of("timer"), wheel.advanceTo(deadline));
+		assertEquals(0, wheel.size());
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = {WHEEL_SPAN, WHEEL_SPAN + LEVEL_2_SPAN + 7, 2 * WHEEL_SPAN + 5})
+	void firesTimersBeyondTheTopWheelFromOverflow(long deadline) {
+		wheel.schedule(deadline, "far");
+
+		assertEquals(List.of(), wheel.advanceTo(deadline - 1));
+		assertEquals(1, wheel.size());
+		assertEquals(List.of("far"), wheel.advanceTo(deadline));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void firesInDeadlineOrderAcrossLevels() {
+		wheel.schedule(LEVEL_2_SPAN, "level 2");
+		wheel.schedule(LEVEL_1_SPAN, "level 1");
+		wheel.schedule(LEVEL_1_SPAN - 1, "level 0");
+		wheel.schedule(WHEEL_SPAN + 1, "overflow");
+
+		assertEquals(List.of("level 0", "level 1", "level 2"), wheel.advanceTo(LEVEL_2_SPAN));
+		assertEquals(List.of("overflow"), wheel.advanceTo(WHEEL_SPAN + 1));
+	}
+
+	@Test
+	void cancelledTimersNeverFireAndLeaveSizeWhenDropped() {
+		HierarchicalTimerWheel.Timer<String> near = wheel.schedule(10, "near");
+		HierarchicalTimerWheel.Timer<String> far = wheel.schedule(LEVEL_2_SPAN + 10, "far");
+		wheel.schedule(LEVEL_2_SPAN + 20, "kept");
+		assertEquals(3, wheel.size());
+
+		near.cancel();
+		far.cancel();
+		// Cancelled timers are only counted out once their bucket is visited
+		assertEquals(3, wheel.size());
+
+		assertEquals(List.of(), wheel.advanceTo(10));
+		assertEquals(2, wheel.size());
+
+		// "far" sits in a level 2 bucket, which is spread over the lower wheels at tick 4096
+		assertEquals(List.of(), wheel.advanceTo(LEVEL_2_SPAN));
+		assertEquals(1, wheel.size());
+
+		assertEquals(List.of("kept"), wheel.advanceTo(LEVEL_2_SPAN + 20));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cancelledOverflowTimerIsDroppedWhenOverflowIsReexamined() {
+		HierarchicalTimerWheel.Timer<String> far = wheel.schedule(2 * WHEEL_SPAN, "far");
+		far.cancel();
+
+		assertEquals(List.of(), wheel.advanceTo(WHEEL_SPAN));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void pastDeadlinesFireOnTheNextTick() {
+		HierarchicalTimerWheel<String> secondWheel = new HierarchicalTimerWheel<>(1000, 10_000);
+		secondWheel.schedule(5_000, "past");
+		secondWheel.schedule(10_000, "now");
+
+		assertEquals(List.of(), secondWheel.advanceTo(10_999));
+		assertEquals(List.of("past", "now"), secondWheel.advanceTo(11_000));
+	}
+
+	@Test
+	void deadlinesBetweenTicksRoundUp() {
+		HierarchicalTimerWheel<String> secondWheel = new HierarchicalTimerWheel<>(1000, 0);
+		secondWheel.schedule(1_001, "rounded");
+
+		assertEquals(List.of(), secondWheel.advanceTo(1_999));
+		assertEquals(List.of("rounded"), secondWheel.advanceTo(2_000));
+	}
+}
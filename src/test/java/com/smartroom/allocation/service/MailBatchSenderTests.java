@@ -0,0 +1,94 @@
+package com.smartroom.allocation.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.RoomType;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends bulk notifications to an in-process SMTP server (GreenMail) through a JavaMailSenderImpl that counts the
+ * connections it opens. A room update to 300 recipients must take ceil(300 / batch-size) connections, not 300.
+ */
+class MailBatchSenderTests {
+
+	private static final int BATCH_SIZE = 50;
+	private static final int RECIPIENTS = 300;
+
+	@RegisterExtension
+	static final GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+	private final AtomicInteger connections = new AtomicInteger();
+
+	private MailBatchSender mailBatchSender;
+	private NotificationService notificationService;
+
+	@BeforeEach
+	void setUp() {
+		JavaMailSenderImpl mailSender = new JavaMailSenderImpl() {
+			@Override
+			protected Transport connectTransport() throws MessagingException {
+				connections.incrementAndGet();
+				return super.connectTransport();
+			}
+		};
+		mailSender.setHost(greenMail.getSmtp().getBindTo());
+		mailSender.setPort(greenMail.getSmtp().getPort());
+
+		mailBatchSender = new MailBatchSender();
+		ReflectionTestUtils.setField(mailBatchSender, "mailSender", mailSender);
+		ReflectionTestUtils.setField(mailBatchSender, "batchSize", BATCH_SIZE);
+
+		// Not a Spring bean here, so @Async does not apply and the send finishes before the call returns.
+		// The digest's enabled flag is only set by Spring, so it stays off.
+		notificationService = new NotificationService();
+		ReflectionTestUtils.setField(notificationService, "mailSender", mailSender);
+		ReflectionTestUtils.setField(notificationService, "mailBatchSender", mailBatchSender);
+		ReflectionTestUtils.setField(notificationService, "notificationDigest", new NotificationDigest());
+	}
+
+	@Test
+	void roomUpdateOpensOneConnectionPerBatch() {
+		Room room = new Room("MAIL-1", "Mail Test Room", 30, "Test", "0", RoomType.CLASSROOM);
+		List<String> recipients = IntStream.range(0, RECIPIENTS).mapToObj(i -> "user" + i + "@example.com").toList();
+
+		notificationService.sendRoomUpdateNotification(room, recipients);
+
+		assertEquals((RECIPIENTS + BATCH_SIZE - 1) / BATCH_SIZE, connections.get());
+		assertEquals(RECIPIENTS, greenMail.getReceivedMessages().length);
+	}
+
+	@Test
+	void identicalMessagesAreEachSent() {
+		List<SimpleMailMessage> messages = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			SimpleMailMessage message = new SimpleMailMessage();
+			message.setTo("same@example.com");
+			message.setSubject("Same subject");
+			message.setText("Same text");
+			messages.add(message);
+		}
+
+		Map<SimpleMailMessage, Exception> failures = mailBatchSender.send(messages);
+
+		assertTrue(failures.isEmpty(), "failures: " + failures);
+		assertEquals(1, connections.get());
+		assertEquals(3, greenMail.getReceivedMessagesForDomain("same@example.com").length);
+	}
+}
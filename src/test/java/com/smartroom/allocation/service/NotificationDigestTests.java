@@ -0,0 +1,141 @@
+package com.smartroom.allocation.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Adds updates to digests and flushes them by hand, without the scheduled flusher or a database.
+ * Checks that updates to one recipient are merged, that a digest is held until its window closes or it
+ * reaches max-items, and that a digest the outbox could not take is kept for the next flush.
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationDigestTests {
+
+	private static final String KIND = "NOTIFICATION_DIGEST";
+	private static final Duration WINDOW = Duration.ofMillis(200);
+
+	@Mock
+	private NotificationOutbox notificationOutbox;
+
+	@InjectMocks
+	private NotificationDigest notificationDigest;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(notificationDigest, "enabled", true);
+		ReflectionTestUtils.setField(notificationDigest, "window", WINDOW);
+		ReflectionTestUtils.setField(notificationDigest, "maxItems", 50);
+	}
+
+	@Test
+	void updatesToOneRecipientAreMerged() throws InterruptedException {
+		notificationDigest.add("alice@example.com", "Room A changed", "Room A details");
+		notificationDigest.add("alice@example.com", "Room B changed", "Room B details");
+		notificationDigest.add("alice@example.com", "Room C changed", "Room C details");
+		notificationDigest.add("bob@example.com", "Room A changed", "Room A details");
+		waitForWindow();
+
+		notificationDigest.flush(false);
+
+		List<SimpleMailMessage> queued = queued(2);
+		SimpleMailMessage alice = recipient(queued, "alice@example.com");
+		assertTrue(alice.getSubject().contains("3 updates"), alice.getSubject());
+		String text = alice.getText();
+		assertTrue(text.indexOf("Room A details") < text.indexOf("Room B details")
+				&& text.indexOf("Room B details") < text.indexOf("Room C details"), text);
+		SimpleMailMessage bob = recipient(queued, "bob@example.com");
+		assertEquals("Room A changed", bob.getSubject());
+		assertTrue(bob.getText().contains("Room A details"));
+	}
+
+	@Test
+	void digestIsHeldUntilItsWindowCloses() throws InterruptedException {
+		notificationDigest.add("alice@example.com", "Room A changed", "Room A details");
+
+		notificationDigest.flush(false);
+		verifyNoInteractions(notificationOutbox);
+
+		waitForWindow();
+		notificationDigest.flush(false);
+		queued(1);
+
+		// Nothing left, and the next update opens a new window
+		notificationDigest.add("alice@example.com", "Room B changed", "Room B details");
+		notificationDigest.flush(false);
+		queued(1);
+	}
+
+	@Test
+	void fullDigestIsQueuedBeforeItsWindowCloses() {
+		ReflectionTestUtils.setField(notificationDigest, "window", Duration.ofHours(1));
+		ReflectionTestUtils.setField(notificationDigest, "maxItems", 3);
+
+		notificationDigest.add("alice@example.com", "Room A changed", "Room A details");
+		notificationDigest.add("alice@example.com", "Room B changed", "Room B details");
+		notificationDigest.flush(false);
+		verifyNoInteractions(notificationOutbox);
+
+		notificationDigest.add("alice@example.com", "Room C changed", "Room C details");
+		notificationDigest.flush(false);
+		assertTrue(queued(1).get(0).getSubject().contains("3 updates"));
+	}
+
+	@Test
+	void digestTheOutboxCouldNotTakeIsKeptForTheNextFlush() throws InterruptedException {
+		doThrow(new DataAccessResourceFailureException("database unavailable"))
+				.doNothing()
+				.when(notificationOutbox).enqueue(eq(KIND), any(SimpleMailMessage.class));
+
+		notificationDigest.add("alice@example.com", "Room A changed", "Room A details");
+		waitForWindow();
+		notificationDigest.flush(false);
+
+		// The kept digest is still due, and picks up the update that arrived in between
+		notificationDigest.add("alice@example.com", "Room B changed", "Room B details");
+		notificationDigest.flush(false);
+
+		List<SimpleMailMessage> attempts = queued(2);
+		assertEquals("Room A changed", attempts.get(0).getSubject());
+		String text = attempts.get(1).getText();
+		assertTrue(attempts.get(1).getSubject().contains("2 updates"), attempts.get(1).getSubject());
+		assertTrue(text.indexOf("Room A details") >= 0 && text.indexOf("Room A details") < text.indexOf("Room B details"), text);
+
+		notificationDigest.flush(true);
+		queued(2);
+	}
+
+	private static void waitForWindow() throws InterruptedException {
+		Thread.sleep(WINDOW.toMillis() + 50);
+	}
+
+	// Everything queued so far, checking the count
+	private List<SimpleMailMessage> queued(int expected) {
+		ArgumentCaptor<SimpleMailMessage> messages = ArgumentCaptor.forClass(SimpleMailMessage.class);
+		verify(notificationOutbox, times(expected)).enqueue(eq(KIND), messages.capture());
+		return messages.getAllValues();
+	}
+
+	private static SimpleMailMessage recipient(List<SimpleMailMessage> messages, String email) {
+		return messages.stream().filter(message -> message.getTo()[0].equals(email)).findFirst().orElseThrow();
+	}
+}
@@ -0,0 +1,116 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.config.AsyncConfig;
+import com.smartroom.allocation.entity.Room;
+import com.smartroom.allocation.entity.RoomType;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sends room update notifications (digests off, so they go straight to the notification executor) against a
+ * mail server that takes seconds to answer. Checks that callers return well before the email has been sent,
+ * and that a full executor queue shows up in the queue and rejection metrics.
+ */
+@SpringBootTest(properties = {
+		"notification.digest.enabled=false",
+		"notification.outbox.enabled=false",
+		"notification.executor.core-size=1",
+		"notification.executor.max-size=1",
+		"notification.executor.queue-capacity=1",
+		"notification.executor.rejection-policy=DISCARD",
+		// The mail health check needs a real JavaMailSenderImpl, which the mock replaces
+		"management.health.mail.enabled=false"
+})
+class NotificationLatencyTests {
+
+	private static final long MAIL_DELAY_MS = 3000;
+
+	@MockBean
+	private JavaMailSender mailSender;
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	@Qualifier(AsyncConfig.NOTIFICATION_EXECUTOR)
+	private ThreadPoolTaskExecutor notificationExecutor;
+
+	private Room room;
+
+	@BeforeEach
+	void setUp() {
+		room = new Room("LATENCY-1", "Latency Test Room", 30, "Test", "0", RoomType.CLASSROOM);
+		when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+		doAnswer(invocation -> {
+			Thread.sleep(MAIL_DELAY_MS);
+			return null;
+		}).when(mailSender).send(any(MimeMessage[].class));
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		// Let queued sends finish so the next test starts with an idle executor
+		ThreadPoolExecutor pool = notificationExecutor.getThreadPoolExecutor();
+		while (pool.getActiveCount() > 0 || !pool.getQueue().isEmpty()) {
+			Thread.sleep(50);
+		}
+	}
+
+	@Test
+	void roomUpdateDoesNotWaitForMailServer() {
+		long started = System.nanoTime();
+		notificationService.sendRoomUpdateNotification(room, List.of("latency@example.com"));
+		long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+		assertTrue(elapsedMs < MAIL_DELAY_MS, "notification took " + elapsedMs + " ms with a " + MAIL_DELAY_MS + " ms mail server");
+		verify(mailSender, timeout(MAIL_DELAY_MS * 3)).send(any(MimeMessage[].class));
+	}
+
+	@Test
+	void fullQueueIsDiscardedAndCounted() throws InterruptedException {
+		double rejectedBefore = meterRegistry.get("notifications.rejected").counter().count();
+		ThreadPoolExecutor pool = notificationExecutor.getThreadPoolExecutor();
+
+		// The first send takes the only sender thread, the second waits in the queue, the third finds it full.
+		// An idle sender thread left by an earlier test takes the first send from the queue, so wait for that.
+		long started = System.nanoTime();
+		notificationService.sendRoomUpdateNotification(room, List.of("queue-0@example.com"));
+		while (pool.getActiveCount() == 0 || !pool.getQueue().isEmpty()) {
+			Thread.sleep(5);
+		}
+		for (int i = 1; i < 3; i++) {
+			notificationService.sendRoomUpdateNotification(room, List.of("queue-" + i + "@example.com"));
+		}
+		long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+		assertTrue(elapsedMs < MAIL_DELAY_MS, "notifications took " + elapsedMs + " ms with a " + MAIL_DELAY_MS + " ms mail server");
+		assertEquals(1.0, meterRegistry.get("notifications.queue.size").gauge().value());
+		assertEquals(0.0, meterRegistry.get("notifications.queue.remaining").gauge().value());
+		assertEquals(rejectedBefore + 1, meterRegistry.get("notifications.rejected").counter().count());
+		verify(mailSender, timeout(MAIL_DELAY_MS * 3).times(2)).send(any(MimeMessage[].class));
+	}
+}
@@ -0,0 +1,123 @@
+package com.smartroom.allocation.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.Session;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dispatches a batch of outbox rows against a mail sender that rejects some of the messages it is given,
+ * reporting them through MailSendException.getFailedMessages. Only the rows behind the rejected messages may
+ * stay queued for a retry; the rest are deleted. Two of the rows are identical, and only one of those fails.
+ */
+@SpringBootTest(properties = {
+		// Dispatch by hand rather than from the worker thread
+		"notification.outbox.enabled=false",
+		"notification.outbox.batch-size=" + OutboxDispatcherTests.ROWS,
+		"management.health.mail.enabled=false"
+})
+class OutboxDispatcherTests {
+
+	static final int ROWS = 5;
+
+	@MockBean
+	private JavaMailSender mailSender;
+
+	@Autowired
+	private OutboxDispatcher outboxDispatcher;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private String ok;
+	private String duplicate;
+	private String failing;
+	private final List<Long> ids = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		ok = "ok-" + suffix + "@example.com";
+		duplicate = "dup-" + suffix + "@example.com";
+		failing = "fail-" + suffix + "@example.com";
+		// Dated well before anything else in the table, in this order, so the batch claims exactly these rows
+		String[] recipients = {ok, duplicate, duplicate, failing, ok};
+		for (int i = 0; i < ROWS; i++) {
+			ids.add(jdbcTemplate.queryForObject("""
+							INSERT INTO notification_outbox (kind, recipient, subject, body, next_attempt_at)
+							VALUES ('TEST', ?, 'Outbox test', 'Same body', now() - interval '10 years' + ? * interval '1 second')
+							RETURNING id""",
+					Long.class, recipients[i], i));
+		}
+
+		when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+		// Reject every message to the failing address and the first of the two identical messages
+		doAnswer(invocation -> {
+			Map<Object, Exception> failed = new LinkedHashMap<>();
+			Set<String> seen = new HashSet<>();
+			for (Object argument : invocation.getArguments()) {
+				MimeMessage message = (MimeMessage) argument;
+				String recipient = ((InternetAddress) message.getRecipients(Message.RecipientType.TO)[0]).getAddress();
+				if (recipient.equals(failing) || (recipient.equals(duplicate) && seen.add(recipient))) {
+					failed.put(message, new MailSendException("550 rejected " + recipient));
+				}
+			}
+			if (!failed.isEmpty()) {
+				throw new MailSendException(failed);
+			}
+			return null;
+		}).when(mailSender).send(any(MimeMessage[].class));
+	}
+
+	@AfterEach
+	void tearDown() {
+		ids.forEach(id -> jdbcTemplate.update("DELETE FROM notification_outbox WHERE id = ?", id));
+	}
+
+	@Test
+	void onlyRejectedRowsAreRetried() {
+		Integer claimed = transactionTemplate.execute(status -> outboxDispatcher.dispatchBatch());
+		assertEquals(ROWS, claimed);
+
+		List<Map<String, Object>> remaining = jdbcTemplate.queryForList("""
+				SELECT id, status, attempts, last_error, next_attempt_at > now() AS deferred
+				FROM notification_outbox WHERE id IN (?, ?, ?, ?, ?) ORDER BY id""", ids.toArray());
+
+		assertEquals(List.of(ids.get(1), ids.get(3)), remaining.stream().map(row -> ((Number) row.get("id")).longValue()).toList());
+		for (Map<String, Object> row : remaining) {
+			assertEquals("PENDING", row.get("status"));
+			assertEquals(1, row.get("attempts"));
+			assertNotNull(row.get("last_error"));
+			assertTrue((Boolean) row.get("deferred"), "row " + row.get("id") + " is due again immediately");
+		}
+		assertTrue(((String) remaining.get(1).get("last_error")).contains(failing));
+	}
+}
@@ -0,0 +1,264 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.AllocationRequest;
+import com.smartroom.allocation.dto.AllocationResult;
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.dto.RoomProfile;
+import com.smartroom.allocation.entity.EquipmentType;
+import com.smartroom.allocation.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the allocator against synthetic room profiles and bookings, without a database.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomAllocationServiceTests {
+
+	// Same as the allocation.time-budget-ms default
+	private static final long TIME_BUDGET_MS = 2000;
+
+	private static final String TIMED_OUT_REASON = "The time budget ran out before this request was placed";
+
+	private static final LocalDateTime DAY = LocalDate.now().plusDays(1).atStartOfDay();
+
+	@Mock
+	private RoomService roomService;
+
+	@Mock
+	private BookingRepository bookingRepository;
+
+	@InjectMocks
+	private RoomAllocationService roomAllocationService;
+
+	private final List<RoomProfile> rooms = new ArrayList<>();
+	private final List<BookingSlot> existingBookings = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(roomAllocationService, "timeBudgetMs", TIME_BUDGET_MS);
+		ReflectionTestUtils.setField(roomAllocationService, "maxRequests", 10000);
+		ReflectionTestUtils.setField(roomAllocationService, "candidatesPerRequest", 100);
+		when(roomService.getBookableRoomProfiles()).thenReturn(rooms);
+		when(bookingRepository.findConfirmedSlotsBetween(any(), any())).thenReturn(existingBookings);
+	}
+
+	@Test
+	void overlappingRequestsNeverShareARoom() {
+		room(1L, 30, "North");
+		room(2L, 30, "North");
+		List<AllocationRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			requests.add(request("r" + i, 10, 11, 10, null));
+		}
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		assertEquals(2, result.getAssignments().size());
+		assertEquals(3, result.getUnassigned().size());
+		assertNoDoubleAssignment(requests, result);
+	}
+
+	@Test
+	void backToBackRequestsShareARoom() {
+		room(1L, 30, "North");
+		List<AllocationRequest> requests = List.of(
+				request("first", 10, 11, 10, null),
+				request("second", 11, 12, 10, null));
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		assertEquals(Map.of("first", 1L, "second", 1L), roomsById(result));
+	}
+
+	@Test
+	void requestOverlappingTwoAssignmentsIsNotRepairedByMovingOne() {
+		room(1L, 30, "North");
+		List<AllocationRequest> requests = List.of(
+				request("first", 10, 11, 10, null),
+				request("second", 11, 12, 10, null),
+				request("overlapping", 10, 12, 10, null));
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		// The longest request is placed first and the other two each overlap it; with one room nothing can move
+		assertEquals(Map.of("overlapping", 1L), roomsById(result));
+		assertEquals(List.of("first", "second"), result.getUnassigned().stream()
+				.map(AllocationResult.Unassigned::getRequestId).toList());
+		assertEquals("Every suitable room was given to another request in the batch", result.getUnassigned().get(0).getReason());
+	}
+
+	@Test
+	void existingBookingsBlockOnlyTheTimesTheyHold() {
+		room(1L, 30, "North");
+		existingBookings.add(new BookingSlot(100L, 1L, DAY.plusHours(10), DAY.plusHours(11)));
+		List<AllocationRequest> requests = List.of(
+				request("clashing", 10, 12, 10, null),
+				request("before", 9, 10, 10, null),
+				request("after", 11, 12, 10, null));
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		assertEquals(Map.of("before", 1L, "after", 1L), roomsById(result));
+		assertEquals("clashing", result.getUnassigned().get(0).getRequestId());
+		assertEquals("No room with the required capacity and equipment is free at that time",
+				result.getUnassigned().get(0).getReason());
+	}
+
+	@Test
+	void preferredBuildingComesBeforeWastedCapacity() {
+		room(1L, 25, "North");
+		room(2L, 100, "South");
+		List<AllocationRequest> requests = List.of(
+				request("south", 9, 10, 20, "South"),
+				request("anywhere", 11, 12, 20, null));
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		assertEquals(Map.of("south", 2L, "anywhere", 1L), roomsById(result));
+		assertEquals(80 + 5, result.getTotalWastedCapacity());
+	}
+
+	@Test
+	void repairMovesASingleBlockerToPlaceAnUnassignedRequest() {
+		room(1L, 20, "North").getEquipment().add(EquipmentType.PROJECTOR);
+		room(2L, 20, "South");
+		room(3L, 10, "East").getEquipment().add(EquipmentType.PROJECTOR);
+
+		// "projector" and "large" tie on two candidates each and are longer than "late", so they go first:
+		// "projector" takes its preferred room 1 and "large" the only other room it fits, room 2.
+		// "late" then finds both of its rooms taken until the repair step moves "projector" to room 3.
+		AllocationRequest projector = request("projector", 10, 12, 5, "North");
+		projector.setRequiredEquipment(Set.of(EquipmentType.PROJECTOR));
+		List<AllocationRequest> requests = List.of(
+				projector,
+				request("large", 10, 12, 15, null),
+				request("late", 10, 11, 15, null));
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		assertEquals(Map.of("projector", 3L, "large", 2L, "late", 1L), roomsById(result));
+		assertTrue(result.getUnassigned().isEmpty());
+		assertFalse(result.isTimedOut());
+	}
+
+	@Test
+	void requestsNotReachedWithinTheTimeBudgetAreReturnedAsUnassigned() {
+		ReflectionTestUtils.setField(roomAllocationService, "timeBudgetMs", 0L);
+		room(1L, 30, "North");
+		List<AllocationRequest> requests = List.of(
+				request("first", 10, 11, 10, null),
+				request("second", 12, 13, 10, null));
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		assertTrue(result.isTimedOut());
+		assertTrue(result.getAssignments().isEmpty());
+		assertEquals(List.of(TIMED_OUT_REASON, TIMED_OUT_REASON), result.getUnassigned().stream()
+				.map(AllocationResult.Unassigned::getReason).toList());
+	}
+
+	@Test
+	void largeBatchIsSolvedOrCutOffAtTheTimeBudget() {
+		Random random = new Random(42);
+		String[] buildings = {"North", "South", "East", "West", "Central"};
+		EquipmentType[] equipment = EquipmentType.values();
+		for (long id = 1; id <= 1000; id++) {
+			RoomProfile profile = room(id, 10 + random.nextInt(19) * 10, buildings[random.nextInt(buildings.length)]);
+			for (EquipmentType type : equipment) {
+				if (random.nextInt(3) == 0) {
+					profile.getEquipment().add(type);
+				}
+			}
+		}
+		// One-hour bookings on the hour, so bookings of the same room never overlap
+		for (int i = 0; i < 2000; i++) {
+			LocalDateTime start = DAY.plusDays(random.nextInt(5)).plusHours(8 + random.nextInt(10));
+			existingBookings.add(new BookingSlot((long) i, 1L + random.nextInt(1000), start, start.plusHours(1)));
+		}
+		List<AllocationRequest> requests = new ArrayList<>();
+		for (int i = 0; i < 10000; i++) {
+			int hour = 8 + random.nextInt(10);
+			AllocationRequest request = request("r" + i, hour, hour + 1 + random.nextInt(2), 5 + random.nextInt(150),
+					random.nextBoolean() ? buildings[random.nextInt(buildings.length)] : null);
+			int day = random.nextInt(5);
+			request.setStartTime(request.getStartTime().plusDays(day));
+			request.setEndTime(request.getEndTime().plusDays(day));
+			if (random.nextInt(4) == 0) {
+				request.setRequiredEquipment(Set.of(equipment[random.nextInt(equipment.length)]));
+			}
+			requests.add(request);
+		}
+
+		AllocationResult result = roomAllocationService.allocate(requests);
+
+		// No wall-clock assertion: how far a shared CI machine gets is not stable, but the result must be
+		// consistent either way, and requests are only reported as cut off when the budget actually ran out
+		assertEquals(10000, result.getAssignments().size() + result.getUnassigned().size());
+		assertNoDoubleAssignment(requests, result);
+		long cutOff = result.getUnassigned().stream().filter(unassigned -> TIMED_OUT_REASON.equals(unassigned.getReason())).count();
+		assertTrue(result.isTimedOut() || cutOff == 0, cutOff + " requests cut off without a timeout");
+	}
+
+	private RoomProfile room(Long id, int capacity, String building) {
+		RoomProfile profile = new RoomProfile(id, "R" + id, capacity, building);
+		rooms.add(profile);
+		return profile;
+	}
+
+	private static AllocationRequest request(String id, int fromHour, int toHour, int capacity, String building) {
+		AllocationRequest request = new AllocationRequest();
+		request.setRequestId(id);
+		request.setStartTime(DAY.plusHours(fromHour));
+		request.setEndTime(DAY.plusHours(toHour));
+		request.setCapacity(capacity);
+		request.setPreferredBuilding(building);
+		return request;
+	}
+
+	private static Map<String, Long> roomsById(AllocationResult result) {
+		return result.getAssignments().stream()
+				.collect(Collectors.toMap(AllocationResult.Assignment::getRequestId, AllocationResult.Assignment::getRoomId));
+	}
+
+	private static void assertNoDoubleAssignment(List<AllocationRequest> requests, AllocationResult result) {
+		Map<String, AllocationRequest> byId = requests.stream()
+				.collect(Collectors.toMap(AllocationRequest::getRequestId, request -> request));
+		Map<Long, List<AllocationRequest>> byRoom = new HashMap<>();
+		for (AllocationResult.Assignment assignment : result.getAssignments()) {
+			byRoom.computeIfAbsent(assignment.getRoomId(), id -> new ArrayList<>()).add(byId.get(assignment.getRequestId()));
+		}
+		for (Map.Entry<Long, List<AllocationRequest>> entry : byRoom.entrySet()) {
+			List<AllocationRequest> held = entry.getValue();
+			for (int i = 0; i < held.size(); i++) {
+				for (int j = i + 1; j < held.size(); j++) {
+					AllocationRequest a = held.get(i);
+					AllocationRequest b = held.get(j);
+					assertFalse(a.getStartTime().isBefore(b.getEndTime()) && b.getStartTime().isBefore(a.getEndTime()),
+							"room " + entry.getKey() + " given to both " + a.getRequestId() + " and " + b.getRequestId());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package com.smartroom.allocation.service;
+
+import com.smartroom.allocation.dto.BookingSlot;
+import com.smartroom.allocation.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the bitmaps from stubbed bookings. The interval index is a bare mock, so any set bit under a
+ * window makes mayBeFree answer false and the answers show exactly which slots are marked.
+ */
+@ExtendWith(MockitoExtension.class)
+class RoomOccupancyBitmapTests {
+
+	private static final long ROOM = 1L;
+	private static final long OTHER_ROOM = 2L;
+
+	@Mock
+	private BookingRepository bookingRepository;
+
+	@Mock
+	private BookingIntervalIndex bookingIntervalIndex;
+
+	@InjectMocks
+	private RoomOccupancyBitmap bitmap;
+
+	private final List<BookingSlot> bookings = new ArrayList<>();
+	private final LocalDate today = LocalDate.now();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(bitmap, "enabled", true);
+		when(bookingRepository.findConfirmedSlotsBetween(any(), any())).thenReturn(bookings);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 243, 244, 300, RoomOccupancyBitmap.HORIZON_DAYS - 1})
+	void marksOnlyTheBookedSlotsOnEveryDayOfTheHorizon(int day) {
+		bookings.add(slot(1L, ROOM, at(day, 10, 0), at(day, 11, 0)));
+		bitmap.warmUp();
+
+		assertFalse(bitmap.mayBeFree(ROOM, at(day, 10, 0), at(day, 11, 0)));
+		assertFalse(bitmap.mayBeFree(ROOM, at(day, 10, 45), at(day, 12, 0)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(day, 9, 0), at(day, 10, 0)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(day, 11, 0), at(day, 12, 0)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(day, 0, 0), at(day, 10, 0)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(day, 11, 0), at(day + 1, 0, 0)));
+		assertTrue(bitmap.mayBeFree(OTHER_ROOM, at(day, 10, 0), at(day, 11, 0)));
+	}
+
+	@Test
+	void slotsAfterTheFirstWordOfADayStayOnThatDay() {
+		// 20:00 is slot 80, in the second word of the day
+		bookings.add(slot(1L, ROOM, at(300, 20, 0), at(300, 20, 15)));
+		bitmap.warmUp();
+
+		assertFalse(bitmap.mayBeFree(ROOM, at(300, 20, 0), at(300, 20, 15)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(301, 0, 0), at(302, 0, 0)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(299, 0, 0), at(300, 20, 0)));
+	}
+
+	@Test
+	void bookingAcrossMidnightMarksTheEndOfOneDayAndTheStartOfTheNext() {
+		bookings.add(slot(1L, ROOM, at(200, 23, 30), at(201, 0, 30)));
+		bitmap.warmUp();
+
+		assertFalse(bitmap.mayBeFree(ROOM, at(200, 23, 45), at(201, 0, 0)));
+		assertFalse(bitmap.mayBeFree(ROOM, at(201, 0, 15), at(201, 0, 30)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(200, 0, 0), at(200, 23, 30)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(201, 0, 30), at(202, 0, 0)));
+	}
+
+	@Test
+	void lastSlotOfTheHorizonCanBeBooked() {
+		int lastDay = RoomOccupancyBitmap.HORIZON_DAYS - 1;
+		bookings.add(slot(1L, ROOM, at(lastDay, 23, 45), at(lastDay + 1, 0, 0)));
+		bitmap.warmUp();
+
+		assertTrue(bitmap.covers(at(lastDay, 23, 45), at(lastDay + 1, 0, 0)));
+		assertFalse(bitmap.mayBeFree(ROOM, at(lastDay, 23, 45), at(lastDay + 1, 0, 0)));
+		assertTrue(bitmap.mayBeFree(ROOM, at(lastDay, 0, 0), at(lastDay, 23, 45)));
+	}
+
+	@Test
+	void bookingBeyondTheHorizonIsClippedAndDoesNotFailTheBuild() {
+		int lastDay = RoomOccupancyBitmap.HORIZON_DAYS - 1;
+		bookings.add(slot(1L, ROOM, at(lastDay, 23, 0), at(lastDay + 3, 0, 0)));
+		bitmap.warmUp();
+
+		assertEquals(today, bitmap.getHorizonStart());
+		assertFalse(bitmap.mayBeFree(ROOM, at(lastDay, 23, 0), at(lastDay + 1, 0, 0)));
+	}
+
+	@Test
+	void committedChangesSetAndClearTheirSlots() {
+		bitmap.warmUp();
+		BookingSlot booked = slot(1L, ROOM, at(330, 9, 0), at(330, 10, 0));
+
+		bitmap.onBookingChanged(new BookingChangedEvent(null, booked));
+		assertFalse(bitmap.mayBeFree(ROOM, at(330, 9, 0), at(330, 10, 0)));
+
+		// Moving the booking clears its old day and marks the new one
+		BookingSlot moved = slot(1L, ROOM, at(331, 14, 0), at(331, 15, 0));
+		bitmap.onBookingChanged(new BookingChangedEvent(booked, moved));
+		assertTrue(bitmap.mayBeFree(ROOM, at(330, 0, 0), at(331, 0, 0)));
+		assertFalse(bitmap.mayBeFree(ROOM, at(331, 14, 0), at(331, 15, 0)));
+
+		bitmap.onBookingChanged(new BookingChangedEvent(moved, null));
+		assertTrue(bitmap.mayBeFree(ROOM, at(331, 0, 0), at(332, 0, 0)));
+	}
+
+	@Test
+	void clearingADayKeepsBookingsTheIndexStillHolds() {
+		BookingSlot released = slot(1L, ROOM, at(250, 9, 0), at(250, 10, 0));
+		BookingSlot kept = slot(2L, ROOM, at(250, 20, 0), at(250, 21, 0));
+		bookings.add(released);
+		bookings.add(kept);
+		bitmap.warmUp();
+		when(bookingIntervalIndex.findConflictingSlots(ROOM, at(250, 0, 0), at(251, 0, 0), 1L)).thenReturn(List.of(kept));
+
+		bitmap.onBookingChanged(new BookingChangedEvent(released, null));
+
+		assertTrue(bitmap.mayBeFree(ROOM, at(250, 9, 0), at(250, 10, 0)));
+		assertFalse(bitmap.mayBeFree(ROOM, at(250, 20, 0), at(250, 21, 0)));
+	}
+
+	@Test
+	void heatmapCountsBusyRoomsPerSlotOfEachDay() {
+		bookings.add(slot(1L, ROOM, at(0, 8, 0), at(0, 8, 30)));
+		bookings.add(slot(2L, ROOM, at(300, 23, 30), at(301, 0, 15)));
+		bookings.add(slot(3L, OTHER_ROOM, at(300, 23, 45), at(301, 0, 0)));
+		bitmap.warmUp();
+
+		List<int[]> days = bitmap.heatmap(today.plusDays(299), today.plusDays(301));
+
+		assertEquals(3, days.size());
+		int[] expected299 = new int[RoomOccupancyBitmap.SLOTS_PER_DAY];
+		int[] expected300 = new int[RoomOccupancyBitmap.SLOTS_PER_DAY];
+		expected300[94] = 1;
+		expected300[95] = 2;
+		int[] expected301 = new int[RoomOccupancyBitmap.SLOTS_PER_DAY];
+		expected301[0] = 1;
+		assertArrayEquals(expected299, days.get(0));
+		assertArrayEquals(expected300, days.get(1));
+		assertArrayEquals(expected301, days.get(2));
+
+		int[] expectedToday = new int[RoomOccupancyBitmap.SLOTS_PER_DAY];
+		expectedToday[32] = 1;
+		expectedToday[33] = 1;
+		assertArrayEquals(expectedToday, bitmap.heatmap(today, today).get(0));
+	}
+
+	@Test
+	void heatmapIsClippedToTheHorizon() {
+		bitmap.warmUp();
+
+		assertEquals(RoomOccupancyBitmap.HORIZON_DAYS, bitmap.heatmap(today.minusDays(5), today.plusDays(400)).size());
+	}
+
+	private LocalDateTime at(int day, int hour, int minute) {
+		return today.plusDays(day).atTime(hour, minute);
+	}
+
+	private static BookingSlot slot(Long bookingId, Long roomId, LocalDateTime start, LocalDateTime end) {
+		return new BookingSlot(bookingId, roomId, start, end);
+	}
+}